@@ -0,0 +1,70 @@
+package benchmark;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.serialization.GsonFactory;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board copying, hashing and comparison, and the Gson round trip the server and client
+ * perform for every game they load or store.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class BoardBenchmark {
+
+    @State(Scope.Thread)
+    public static class SerializedState {
+        public Gson gson;
+        public String json;
+        public ChessBoard equalBoard;
+
+        @Setup(Level.Trial)
+        public void setUp(GamePositionState position) {
+            gson = GsonFactory.create();
+            json = gson.toJson(position.game);
+            equalBoard = gson.fromJson(json, ChessGame.class).getBoard();
+        }
+    }
+
+    @Benchmark
+    public ChessBoard boardCopy(GamePositionState state) {
+        return new ChessBoard(state.game.getBoard());
+    }
+
+    @Benchmark
+    public int boardHashCode(GamePositionState state) {
+        return state.game.getBoard().hashCode();
+    }
+
+    @Benchmark
+    public boolean boardEquals(GamePositionState state, SerializedState serialized) {
+        return state.game.getBoard().equals(serialized.equalBoard);
+    }
+
+    @Benchmark
+    public String gameToJson(GamePositionState state, SerializedState serialized) {
+        return serialized.gson.toJson(state.game);
+    }
+
+    @Benchmark
+    public ChessGame gameFromJson(SerializedState serialized) {
+        return serialized.gson.fromJson(serialized.json, ChessGame.class);
+    }
+}
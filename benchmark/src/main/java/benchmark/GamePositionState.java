@@ -0,0 +1,57 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.LegalMoveCache;
+import chess.perft.PerftPosition;
+import chess.piecemoves.MoveList;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A game set up at one of a fixed set of positions: the opening position, a
+ * crowded middlegame (Kiwipete) and a sparse endgame (perft position 3).
+ */
+@State(Scope.Thread)
+public class GamePositionState {
+
+    @Param({"START", "KIWIPETE", "POSITION_3"})
+    public PerftPosition position;
+
+    /** The game at the position, generating moves on every query. */
+    public ChessGame game;
+
+    /** A copy of the game that keeps its legal moves in a move cache. */
+    public ChessGame cachedGame;
+
+    /** A list for generating moves into directly. */
+    public MoveList moveList;
+
+    /** Squares holding pieces of the side to move. */
+    public ChessPosition[] movers;
+
+    /** Legal moves of the side to move, in generation order. */
+    public ChessMove[] legalMoves;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        game = position.newGame();
+        cachedGame = new ChessGame(game);
+        cachedGame.setMoveCache(new LegalMoveCache(16));
+        moveList = new MoveList();
+
+        List<ChessPosition> squares = new ArrayList<>();
+        for (var piece : game.getBoard().pieces(game.getTeamTurn())) {
+            squares.add(piece.getPosition());
+        }
+        movers = squares.toArray(new ChessPosition[0]);
+        legalMoves = game.validTeamMoves(game.getTeamTurn()).toArray(new ChessMove[0]);
+    }
+}
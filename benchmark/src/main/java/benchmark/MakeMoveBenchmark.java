@@ -0,0 +1,37 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Plays every legal move of the position with the validating
+ * {@link ChessGame#makeMove(ChessMove)} and takes it back again, so each
+ * invocation starts from the same position.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MakeMoveBenchmark {
+
+    @Benchmark
+    public int makeAndUndoEachMove(GamePositionState state) throws InvalidMoveException {
+        ChessGame game = state.game;
+        for (ChessMove move : state.legalMoves) {
+            game.makeMove(move);
+            game.undoMove();
+        }
+        return state.legalMoves.length;
+    }
+}
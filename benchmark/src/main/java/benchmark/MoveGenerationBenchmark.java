@@ -0,0 +1,69 @@
+package benchmark;
+
+import chess.ChessGame;
+import chess.ChessPosition;
+import chess.piecemoves.LegalMoveGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Move generation and game status queries on {@link ChessGame}. The game in the
+ * state has no move cache, so these measure move generation; the cached
+ * variants measure a cache hit instead.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class MoveGenerationBenchmark {
+
+    @Benchmark
+    public void validMovesPerPiece(GamePositionState state, Blackhole blackhole) {
+        for (ChessPosition position : state.movers) {
+            blackhole.consume(state.game.validMoves(position));
+        }
+    }
+
+    @Benchmark
+    public Object validTeamMoves(GamePositionState state) {
+        return state.game.validTeamMoves(state.game.getTeamTurn());
+    }
+
+    @Benchmark
+    public int generateLegalMoves(GamePositionState state) {
+        state.moveList.clear();
+        LegalMoveGenerator.generate(state.game.getBoard(), state.game.getTeamTurn(), ~0L, state.moveList);
+        return state.moveList.size();
+    }
+
+    @Benchmark
+    public void validMovesPerPieceCached(GamePositionState state, Blackhole blackhole) {
+        for (ChessPosition position : state.movers) {
+            blackhole.consume(state.cachedGame.validMoves(position));
+        }
+    }
+
+    @Benchmark
+    public Object validTeamMovesCached(GamePositionState state) {
+        return state.cachedGame.validTeamMoves(state.cachedGame.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheck(GamePositionState state) {
+        return state.game.isInCheck(state.game.getTeamTurn());
+    }
+
+    @Benchmark
+    public boolean isInCheckmate(GamePositionState state) {
+        return state.game.isInCheckmate(state.game.getTeamTurn());
+    }
+}
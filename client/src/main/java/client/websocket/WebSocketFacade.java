@@ -2,7 +2,6 @@ package client.websocket;
 
 import chess.ChessMove;
 import chess.serialization.GsonFactory;
-import com.google.gson.Gson;
 import exception.ResponseException;
 import jakarta.websocket.*;
 import websocket.commands.MakeMoveCommand;
@@ -141,6 +140,6 @@ public class WebSocketFacade extends Endpoint {
     }
 
     private void sendCommand(UserGameCommand command) throws IOException {
-        this.session.getBasicRemote().sendText(new Gson().toJson(command));
+        this.session.getBasicRemote().sendText(GsonFactory.create().toJson(command));
     }
 }
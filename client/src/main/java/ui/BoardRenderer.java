@@ -66,8 +66,8 @@ public final class BoardRenderer {
 
     private static String renderSquare(ChessBoard board, int row, int col, ChessPosition selectedPosition,
                                        Collection<ChessPosition> highlightedSquares) {
-        ChessPosition position = new ChessPosition(row, col);
-        ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+        ChessPosition position = ChessPosition.of(row, col);
+        ChessPiece piece = board.getPiece(position);
         String squareColor = getSquareColor(position, selectedPosition, highlightedSquares);
         String pieceColor = piece == null
                 ? RESET_TEXT_COLOR
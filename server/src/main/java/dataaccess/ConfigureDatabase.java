@@ -33,6 +33,15 @@ public class ConfigureDatabase {
             FOREIGN KEY (white_username) REFERENCES users(username),
             FOREIGN KEY (black_username) REFERENCES users(username)
             )
+            """,
+            // No foreign key to games: deleteAll truncates games, which MySQL refuses for a referenced table.
+            """
+            CREATE TABLE IF NOT EXISTS moves(
+            game_id int NOT NULL,
+            ply int NOT NULL,
+            move VARCHAR(5) NOT NULL,
+            PRIMARY KEY (game_id, ply)
+            )
             """
     };
 
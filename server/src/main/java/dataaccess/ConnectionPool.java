@@ -0,0 +1,339 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded pool of database connections. At most {@code maxSize} connections
+ * are open at once; callers wait up to {@code maxWaitMillis} for one to be
+ * returned before getting a {@link SQLTimeoutException}.
+ * <p>
+ * Closing a connection handed out by the pool returns it instead of closing
+ * it. Idle connections are reused most recently returned first, so the ones
+ * left at the back of the queue go unused and are closed once they have been
+ * idle longer than {@code idleTimeoutMillis}. A connection that has been idle
+ * longer than {@code validationIntervalMillis} is checked with
+ * {@link Connection#isValid(int)} before it is handed out again.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    /**
+     * Opens a new physical connection.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * Pool limits, read from {@code db.pool.*} properties where they are set.
+     */
+    public record Settings(int maxSize, long maxWaitMillis, long idleTimeoutMillis,
+                           long validationIntervalMillis, int validationTimeoutSeconds) {
+
+        public static final Settings DEFAULTS = new Settings(10, 5_000, 600_000, 1_000, 2);
+
+        public Settings {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("Pool size must be at least 1.");
+            }
+        }
+
+        public static Settings fromProperties(Properties props) {
+            return new Settings(
+                    Integer.parseInt(props.getProperty("db.pool.maxSize", String.valueOf(DEFAULTS.maxSize))),
+                    Long.parseLong(props.getProperty("db.pool.maxWaitMillis", String.valueOf(DEFAULTS.maxWaitMillis))),
+                    Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis",
+                            String.valueOf(DEFAULTS.idleTimeoutMillis))),
+                    Long.parseLong(props.getProperty("db.pool.validationIntervalMillis",
+                            String.valueOf(DEFAULTS.validationIntervalMillis))),
+                    Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds",
+                            String.valueOf(DEFAULTS.validationTimeoutSeconds))));
+        }
+    }
+
+    private record IdleConnection(Connection connection, long idleSince) {
+    }
+
+    private final ConnectionFactory factory;
+    private final Settings settings;
+    private final Semaphore permits;
+    private final Deque<IdleConnection> idle = new ArrayDeque<>();
+
+    private final AtomicInteger leased = new AtomicInteger();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder discarded = new LongAdder();
+
+    private volatile boolean closed;
+
+    public ConnectionPool(ConnectionFactory factory, Settings settings) {
+        this.factory = factory;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.maxSize(), true);
+    }
+
+    /**
+     * Borrows a connection. Close it, ideally with try-with-resources, to give
+     * it back.
+     *
+     * @throws SQLTimeoutException if none became free within the maximum wait
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+        try {
+            if (!permits.tryAcquire(settings.maxWaitMillis(), TimeUnit.MILLISECONDS)) {
+                timeouts.increment();
+                throw new SQLTimeoutException("No database connection became free within %d ms."
+                        .formatted(settings.maxWaitMillis()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            Connection physical = takeIdle();
+            if (physical == null) {
+                physical = factory.open();
+                created.increment();
+            }
+            leased.incrementAndGet();
+            acquired.increment();
+            return lease(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes idle connections and stops handing out new ones. Connections still
+     * borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        List<Connection> toClose = new ArrayList<>();
+        synchronized (idle) {
+            for (IdleConnection connection : idle) {
+                toClose.add(connection.connection());
+            }
+            idle.clear();
+        }
+        toClose.forEach(ConnectionPool::closeQuietly);
+    }
+
+    public int getMaxSize() {
+        return settings.maxSize();
+    }
+
+    /**
+     * @return connections currently borrowed
+     */
+    public int getActiveCount() {
+        return leased.get();
+    }
+
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    /**
+     * @return physical connections opened since the pool was created
+     */
+    public long getCreatedCount() {
+        return created.sum();
+    }
+
+    public long getAcquiredCount() {
+        return acquired.sum();
+    }
+
+    /**
+     * @return requests that gave up waiting for a free connection
+     */
+    public long getTimeoutCount() {
+        return timeouts.sum();
+    }
+
+    /**
+     * @return idle connections closed for being idle too long
+     */
+    public long getEvictedCount() {
+        return evicted.sum();
+    }
+
+    /**
+     * @return connections closed because they failed validation or could not be reset
+     */
+    public long getDiscardedCount() {
+        return discarded.sum();
+    }
+
+    @Override
+    public String toString() {
+        return ("ConnectionPool[active=%d, idle=%d, max=%d, created=%d, acquired=%d, "
+                + "timeouts=%d, evicted=%d, discarded=%d]").formatted(getActiveCount(), getIdleCount(),
+                getMaxSize(), getCreatedCount(), getAcquiredCount(), getTimeoutCount(), getEvictedCount(),
+                getDiscardedCount());
+    }
+
+    /**
+     * @return a reusable idle connection, or null if there is none
+     */
+    private Connection takeIdle() {
+        while (true) {
+            IdleConnection candidate;
+            List<Connection> expired;
+            synchronized (idle) {
+                expired = removeExpired(System.nanoTime());
+                candidate = idle.pollFirst();
+            }
+            expired.forEach(ConnectionPool::closeQuietly);
+            if (candidate == null) {
+                return null;
+            }
+            long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - candidate.idleSince());
+            if (idleMillis <= settings.validationIntervalMillis() || isValid(candidate.connection())) {
+                return candidate.connection();
+            }
+            discarded.increment();
+            closeQuietly(candidate.connection());
+        }
+    }
+
+    private void release(Connection physical) {
+        leased.decrementAndGet();
+        try {
+            if (closed || physical.isClosed()) {
+                closeQuietly(physical);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            List<Connection> expired;
+            synchronized (idle) {
+                idle.addFirst(new IdleConnection(physical, System.nanoTime()));
+                expired = removeExpired(System.nanoTime());
+            }
+            expired.forEach(ConnectionPool::closeQuietly);
+        } catch (SQLException e) {
+            discarded.increment();
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Removes connections idle longer than the idle timeout from the back of the
+     * queue, where the least recently used ones are. Callers hold the idle lock
+     * and close the returned connections after releasing it.
+     */
+    private List<Connection> removeExpired(long now) {
+        List<Connection> expired = List.of();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(settings.idleTimeoutMillis());
+        while (!idle.isEmpty() && now - idle.peekLast().idleSince() > timeoutNanos) {
+            if (expired.isEmpty()) {
+                expired = new ArrayList<>();
+            }
+            expired.add(idle.pollLast().connection());
+            evicted.increment();
+        }
+        return expired;
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(settings.validationTimeoutSeconds());
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // The connection is being thrown away either way.
+        }
+    }
+
+    private Connection lease(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new Lease(physical));
+    }
+
+    /**
+     * Passes calls through to the physical connection until the borrower closes
+     * it, which returns the connection to the pool once.
+     */
+    private class Lease implements InvocationHandler {
+        private final Connection physical;
+        private boolean returned;
+
+        Lease(Connection physical) {
+            this.physical = physical;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!returned) {
+                        returned = true;
+                        release(physical);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    if (returned) {
+                        return true;
+                    }
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled " + physical;
+                }
+                default -> {
+                }
+            }
+            if (returned) {
+                throw new SQLException("Connection was already returned to the pool.");
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package dataaccess;
 
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
 
 import static java.sql.Statement.RETURN_GENERATED_KEYS;
 
 public class DBHelper {
+
+    /**
+     * Builds an object from the current row of a result set.
+     */
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
     static public int updateHelper(String statement, Object... params) throws DataAccessException {
         try (Connection conn = DatabaseManager.getConnection()) {
             try (var ps = conn.prepareStatement(statement, RETURN_GENERATED_KEYS)) {
@@ -59,10 +70,51 @@ public class DBHelper {
         }
     }
 
+    /**
+     * Runs a query and maps its first row, so a whole record is read in one
+     * round trip instead of one query per column.
+     *
+     * @return the mapped first row, or null if the query returned no rows
+     */
+    static public <T> T queryOne(String statement, RowMapper<T> mapper, Object... params) throws DataAccessException {
+        try (Connection conn = DatabaseManager.getConnection();
+             var ps = conn.prepareStatement(statement)) {
+            setUpStatement(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? mapper.map(rs) : null;
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException(ex.getMessage());
+        }
+    }
+
+    /**
+     * Runs a query and maps every row it returns.
+     */
+    static public <T> List<T> queryList(String statement, RowMapper<T> mapper, Object... params)
+            throws DataAccessException {
+        try (Connection conn = DatabaseManager.getConnection();
+             var ps = conn.prepareStatement(statement)) {
+            setUpStatement(ps, params);
+            try (ResultSet rs = ps.executeQuery()) {
+                List<T> rows = new ArrayList<>();
+                while (rs.next()) {
+                    rows.add(mapper.map(rs));
+                }
+                return rows;
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException(ex.getMessage());
+        }
+    }
+
     static private void setUpStatement(PreparedStatement ps, Object[] params) throws SQLException {
         for (int i = 0; i < params.length; i++) {
             Object param = params[i];
-            if (param instanceof String p) {
+            if (param == null) {
+                ps.setNull(i + 1, Types.NULL);
+            }
+            else if (param instanceof String p) {
                 ps.setString(i + 1, p);
             }
             else if (param instanceof Integer p) {
@@ -4,10 +4,25 @@ import java.sql.*;
 import java.util.Properties;
 
 public class DatabaseManager {
+    /*
+     * Prepare statements on the server and keep them per connection, so a pooled
+     * connection runs a repeated statement by handle with only its parameters.
+     */
+    private static final String STATEMENT_CACHE_OPTIONS =
+            "useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=64&prepStmtCacheSqlLimit=1024";
+
+    /**
+     * Longest GROUP_CONCAT result on our connections. MySQL's default of 1024
+     * bytes silently cuts longer results short.
+     */
+    static final int GROUP_CONCAT_MAX_LEN = 1 << 20;
+
     private static String databaseName;
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    private static ConnectionPool connectionPool;
+    private static Properties properties;
 
     /*
      * Load the database information for the db.properties file.
@@ -30,10 +45,11 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
-     * The easiest way to do that is with a try-with-resource block.
+     * Borrows a connection to the database from the connection pool, with the
+     * catalog set from the properties specified in db.properties. Connections to
+     * the database should be short-lived, and you must close the connection when
+     * you are done with it so it goes back to the pool. The easiest way to do that
+     * is with a try-with-resource block.
      * <br/>
      * <code>
      * try (var conn = DatabaseManager.getConnection()) {
@@ -43,15 +59,35 @@ public class DatabaseManager {
      */
     static Connection getConnection() throws DataAccessException {
         try {
-            //do not wrap the following line with a try-with-resources
-            var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-            conn.setCatalog(databaseName);
-            return conn;
+            return connectionPool.getConnection();
         } catch (SQLException ex) {
             throw new DataAccessException("failed to get connection", ex);
         }
     }
 
+    /**
+     * @return the pool behind {@link #getConnection()}, for reading its metrics
+     */
+    public static ConnectionPool getConnectionPool() {
+        return connectionPool;
+    }
+
+    /**
+     * @return a setting from db.properties, or the default if it is not set
+     */
+    public static String getProperty(String name, String defaultValue) {
+        return properties.getProperty(name, defaultValue);
+    }
+
+    private static Connection openConnection() throws SQLException {
+        var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
+        conn.setCatalog(databaseName);
+        try (var statement = conn.createStatement()) {
+            statement.execute("SET SESSION group_concat_max_len = " + GROUP_CONCAT_MAX_LEN);
+        }
+        return conn;
+    }
+
     private static void loadPropertiesFromResources() {
         try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
             if (propStream == null) {
@@ -66,12 +102,18 @@ public class DatabaseManager {
     }
 
     private static void loadProperties(Properties props) {
+        properties = props;
         databaseName = props.getProperty("db.name");
         dbUsername = props.getProperty("db.user");
         dbPassword = props.getProperty("db.password");
 
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
-        connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+        connectionUrl = String.format("jdbc:mysql://%s:%d?%s", host, port,
+                props.getProperty("db.urlOptions", STATEMENT_CACHE_OPTIONS));
+
+        // Optional db.pool.* properties; see ConnectionPool.Settings for the defaults.
+        connectionPool = new ConnectionPool(DatabaseManager::openConnection,
+                ConnectionPool.Settings.fromProperties(props));
     }
 }
@@ -1,10 +1,12 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
 import model.GameData;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 public interface GameDAO {
     Integer createGame(String gameName) throws DataAccessException;
@@ -17,6 +19,24 @@ public interface GameDAO {
 
     void updateGame(Integer gameID, ChessGame game) throws DataAccessException;
 
+    /**
+     * Stores the state of several games. Implementations that can should write
+     * them in one batch.
+     */
+    default void updateGames(Map<Integer, ChessGame> games) throws DataAccessException {
+        for (var entry : games.entrySet()) {
+            updateGame(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Stores a game after {@code move} was made in it. Implementations that keep
+     * a move log can append the move instead of writing the whole game.
+     */
+    default void recordMove(Integer gameID, ChessGame game, ChessMove move) throws DataAccessException {
+        updateGame(gameID, game);
+    }
+
     void updateWhitePlayer(Integer gameID, String whiteUsername) throws DataAccessException;
 
     void updateBlackPlayer(Integer gameID, String blackUsername) throws DataAccessException;
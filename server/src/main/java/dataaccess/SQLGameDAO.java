@@ -1,6 +1,9 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.notation.Uci;
 import chess.serialization.GsonFactory;
 import com.google.gson.Gson;
 import model.GameData;
@@ -8,13 +11,58 @@ import model.GameData;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-
+import java.util.Map;
+
+/**
+ * Stores games in MySQL. Each game is a row in {@code games} holding the whole
+ * game as JSON.
+ * <p>
+ * With a snapshot interval set, {@link #recordMove} appends the move to the
+ * {@code moves} table as a UCI string instead of rewriting the JSON, and only
+ * writes a full snapshot every {@code snapshotInterval} plies, removing the
+ * moves it now contains. Reads load the snapshot together with the moves after
+ * it and replay them. Moves are numbered by ply from the game's own move
+ * counters, so rows left from before a snapshot are skipped rather than played
+ * twice.
+ * <p>
+ * Every write of a whole game removes the moves it contains, whichever mode
+ * the DAO is in, so the log stays short when the mode is switched.
+ */
 public class SQLGameDAO implements GameDAO {
 
+    /**
+     * The most moves a game can have between snapshots, which bounds how many
+     * moves a read replays.
+     */
+    public static final int MAX_SNAPSHOT_INTERVAL = 50;
+
+    private static final String UPDATE_GAME = "UPDATE games SET game=? WHERE game_id=?";
+    private static final String COMPACT_MOVES = "DELETE FROM moves WHERE game_id=? AND ply<=?";
+
+    private static final String SELECT_GAME = """
+            SELECT game_id, game_name, white_username, black_username, game,
+            (SELECT GROUP_CONCAT(ply, ' ', move ORDER BY ply SEPARATOR ' ')
+             FROM moves WHERE moves.game_id = games.game_id) AS moves
+            FROM games""";
+
+    private final int snapshotInterval;
+
     public SQLGameDAO() {
+        this(0);
+    }
+
+    /**
+     * @param snapshotInterval plies between full snapshots when moves are
+     *                         recorded, or 0 to write the whole game on every move
+     */
+    public SQLGameDAO(int snapshotInterval) {
+        if (snapshotInterval < 0 || snapshotInterval > MAX_SNAPSHOT_INTERVAL) {
+            throw new IllegalArgumentException("Snapshot interval must be between 0 and %d."
+                    .formatted(MAX_SNAPSHOT_INTERVAL));
+        }
+        this.snapshotInterval = snapshotInterval;
         try {
             ConfigureDatabase.configureDatabase();
         } catch (DataAccessException e) {
@@ -22,8 +70,6 @@ public class SQLGameDAO implements GameDAO {
         }
     }
 
-
-
     @Override
     public Integer createGame(String gameName) throws DataAccessException {
         ChessGame game = new ChessGame();
@@ -34,40 +80,18 @@ public class SQLGameDAO implements GameDAO {
 
     @Override
     public GameData getGameByGameName(String gameName) throws DataAccessException {
-        Integer gameID = DBHelper.getIntHelper("games", "game_id", "game_name", gameName);
-        if (gameID == null) {
-            return null;
-        }
-        String gameJson = DBHelper.getStringHelper("games", "game", "game_name", gameName);
-        ChessGame game = GsonFactory.create().fromJson(gameJson, ChessGame.class);
-        String whiteUsername = DBHelper.getStringHelper("games", "white_username", "game_name", gameName);
-        String blackUsername = DBHelper.getStringHelper("games", "black_username", "game_name", gameName);
-
-        GameData gameData = new GameData(gameID, whiteUsername, blackUsername, gameName, game);
-
-        return gameData;
+        return DBHelper.queryOne(SELECT_GAME + " WHERE game_name=?", SQLGameDAO::mapGame, gameName);
     }
 
     @Override
     public GameData getGameByGameID(Integer gameID) throws DataAccessException {
-        String gameName = DBHelper.getStringHelper("games", "game_name", "game_id", gameID);
-        if (gameName == null) {
-            return null;
-        }
-        String gameJson = DBHelper.getStringHelper("games", "game", "game_id", gameID);
-        ChessGame game = GsonFactory.create().fromJson(gameJson, ChessGame.class);
-        String whiteUsername = DBHelper.getStringHelper("games", "white_username", "game_id", gameID);
-        String blackUsername = DBHelper.getStringHelper("games", "black_username", "game_id", gameID);
-
-        GameData gameData = new GameData(gameID, whiteUsername, blackUsername, gameName, game);
-
-        return gameData;
+        return DBHelper.queryOne(SELECT_GAME + " WHERE game_id=?", SQLGameDAO::mapGame, gameID);
     }
 
     @Override
     public List<GameData> listAllGames() {
-        try (Connection conn = DatabaseManager.getConnection()) {
-            return listAllHelper(conn);
+        try {
+            return DBHelper.queryList(SELECT_GAME, SQLGameDAO::mapGame);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -75,25 +99,64 @@ public class SQLGameDAO implements GameDAO {
 
     @Override
     public void updateWhitePlayer(Integer gameID, String whiteUsername) throws DataAccessException {
-        var statement = (whiteUsername == null)
-                ? "UPDATE games SET white_username=NULL WHERE game_id=%d".formatted(gameID)
-                : "UPDATE games SET white_username='%s' WHERE game_id=%d".formatted(whiteUsername, gameID);
-        DBHelper.updateHelper(statement);
+        DBHelper.updateHelper("UPDATE games SET white_username=? WHERE game_id=?", whiteUsername, gameID);
     }
 
     @Override
     public void updateBlackPlayer(Integer gameID, String blackUsername) throws DataAccessException {
-        var statement = (blackUsername == null)
-                ? "UPDATE games SET black_username=NULL WHERE game_id=%d".formatted(gameID)
-                : "UPDATE games SET black_username='%s' WHERE game_id=%d".formatted(blackUsername, gameID);
-        DBHelper.updateHelper(statement);
+        DBHelper.updateHelper("UPDATE games SET black_username=? WHERE game_id=?", blackUsername, gameID);
     }
 
+    /**
+     * Writes the whole game as a snapshot and removes the logged moves it
+     * contains, in one transaction.
+     */
     @Override
     public void updateGame(Integer gameID, ChessGame game) throws DataAccessException {
-        String serializedGame = GsonFactory.create().toJson(game);
-        var statement = "UPDATE games SET game='%s' WHERE game_id=%d".formatted(serializedGame, gameID);
-        DBHelper.updateHelper(statement);
+        updateGames(Map.of(gameID, game));
+    }
+
+    /**
+     * Appends the move to the move log, or writes a snapshot when the game has
+     * reached the snapshot interval or no interval is set.
+     */
+    @Override
+    public void recordMove(Integer gameID, ChessGame game, ChessMove move) throws DataAccessException {
+        int ply = plyCount(game);
+        if (snapshotInterval == 0 || ply % snapshotInterval == 0) {
+            updateGame(gameID, game);
+            return;
+        }
+        DBHelper.updateHelper("INSERT INTO moves(game_id, ply, move) VALUES (?, ?, ?)", gameID, ply,
+                Uci.format(move));
+    }
+
+    /**
+     * Writes the games as snapshots, as {@link #updateGame} does, with one batch
+     * of updates and one of removals committed together. If either fails the
+     * connection is returned to the pool uncommitted, which rolls both back.
+     */
+    @Override
+    public void updateGames(Map<Integer, ChessGame> games) throws DataAccessException {
+        var gson = GsonFactory.create();
+        try (Connection conn = DatabaseManager.getConnection();
+             var update = conn.prepareStatement(UPDATE_GAME);
+             var compact = conn.prepareStatement(COMPACT_MOVES)) {
+            conn.setAutoCommit(false);
+            for (var entry : games.entrySet()) {
+                update.setString(1, gson.toJson(entry.getValue()));
+                update.setInt(2, entry.getKey());
+                update.addBatch();
+                compact.setInt(1, entry.getKey());
+                compact.setInt(2, plyCount(entry.getValue()));
+                compact.addBatch();
+            }
+            update.executeBatch();
+            compact.executeBatch();
+            conn.commit();
+        } catch (SQLException ex) {
+            throw new DataAccessException(ex.getMessage());
+        }
     }
 
     @Override
@@ -105,31 +168,56 @@ public class SQLGameDAO implements GameDAO {
 
     @Override
     public void deleteAll() {
-        var statement = "TRUNCATE TABLE games";
         try {
-            DBHelper.updateHelper(statement);
+            DBHelper.updateHelper("TRUNCATE TABLE moves");
+            DBHelper.updateHelper("TRUNCATE TABLE games");
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
     }
 
-    private List<GameData> listAllHelper(Connection conn) throws SQLException {
-        List<GameData> games = new ArrayList<>();
-
-        var statement = "SELECT * FROM games";
-        var ps = conn.prepareStatement(statement);
-        ResultSet rs = ps.executeQuery();
-        while (rs.next()) {
-            String gameName = rs.getString("game_name");
-            String gameJson = rs.getString("game");
-            ChessGame game = GsonFactory.create().fromJson(gameJson, ChessGame.class);
-            Integer gameID = rs.getInt("game_id");
-            String whiteUsername = rs.getString("white_username");
-            String blackUsername = rs.getString("black_username");
+    /**
+     * @return how many plies the game has had, going by its move counters
+     */
+    static int plyCount(ChessGame game) {
+        int ply = (game.getFullmoveNumber() - 1) * 2;
+        return (game.getTeamTurn() == ChessGame.TeamColor.BLACK) ? ply + 1 : ply;
+    }
 
-            games.add(new GameData(gameID, whiteUsername, blackUsername, gameName, game));
+    /**
+     * Plays the logged moves that come after the game's snapshot.
+     *
+     * @param moveLog pairs of ply and UCI move separated by spaces, or null
+     */
+    static void replayMoves(ChessGame game, String moveLog) throws SQLException {
+        if (moveLog == null) {
+            return;
         }
+        if (moveLog.length() >= DatabaseManager.GROUP_CONCAT_MAX_LEN) {
+            throw new SQLException("Move log is too long to read in full.");
+        }
+        String[] fields = moveLog.split(" ");
+        for (int i = 0; i + 1 < fields.length; i += 2) {
+            int ply = Integer.parseInt(fields[i]);
+            int expected = plyCount(game) + 1;
+            if (ply < expected) {
+                continue;
+            }
+            if (ply > expected) {
+                throw new SQLException("Move log is missing ply %d.".formatted(expected));
+            }
+            try {
+                game.makeMove(Uci.parse(fields[i + 1]));
+            } catch (InvalidMoveException | IllegalArgumentException e) {
+                throw new SQLException("Logged move %s at ply %d is not legal.".formatted(fields[i + 1], ply), e);
+            }
+        }
+    }
 
-        return games;
+    private static GameData mapGame(ResultSet rs) throws SQLException {
+        ChessGame game = GsonFactory.create().fromJson(rs.getString("game"), ChessGame.class);
+        replayMoves(game, rs.getString("moves"));
+        return new GameData(rs.getInt("game_id"), rs.getString("white_username"), rs.getString("black_username"),
+                rs.getString("game_name"), game);
     }
 }
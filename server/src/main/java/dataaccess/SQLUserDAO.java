@@ -41,23 +41,10 @@ public class SQLUserDAO implements UserDAO {
 
     @Override
     public UserData getUser(String username) throws DataAccessException {
-        var hashedPassword = DBHelper.getStringHelper(
-                "users",
-                "password",
-                "username",
+        var statement = "SELECT username, password, email FROM users WHERE username=?";
+        return DBHelper.queryOne(statement,
+                rs -> new UserData(rs.getString("username"), rs.getString("password"), rs.getString("email")),
                 username);
-
-        if (hashedPassword == null) {
-            return null;
-        }
-        var email = DBHelper.getStringHelper(
-                "users",
-                "email",
-                "username",
-                username
-        );
-
-        return new UserData(username, hashedPassword, email);
     }
 
     @Override
@@ -0,0 +1,258 @@
+package dataaccess;
+
+import chess.ChessGame;
+import model.GameData;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link GameDAO} that stores game state in memory and writes it to another
+ * GameDAO in the background. {@link #updateGame} returns as soon as the game
+ * is recorded, so callers do not wait for the database.
+ * <p>
+ * Only the latest state of each game is kept, so several moves made between
+ * two flushes cost one write. Pending games are flushed as one batch every
+ * {@code flushIntervalMillis}, or sooner once {@code maxPending} games are
+ * waiting. Reads return the pending state over what the delegate has stored,
+ * and {@link #close()} writes everything still pending before returning.
+ * <p>
+ * At most {@code maxPending} games wait at once. While that many are waiting,
+ * for example because flushes keep failing, a game that is not already pending
+ * is written straight through, so callers see the delegate's errors instead of
+ * the backlog growing. {@link #getWriteThroughCount()} counts those writes.
+ * Moves are stored as whole games, so this class is not combined with the move
+ * log of {@link SQLGameDAO}.
+ * <p>
+ * Games are copied on the way in and out, so a caller changing its game
+ * after saving it cannot change what is written.
+ */
+public class WriteBehindGameDAO implements GameDAO, AutoCloseable {
+
+    private final GameDAO delegate;
+    private final int maxPending;
+    private final Map<Integer, ChessGame> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    private final LongAdder updates = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder writeThroughs = new LongAdder();
+
+    private final AtomicBoolean flushQueued = new AtomicBoolean();
+    private volatile boolean closed;
+
+    /**
+     * @param delegate            where games are written
+     * @param flushIntervalMillis the longest a game waits before it is written,
+     *                            while the delegate keeps up
+     * @param maxPending          how many games may wait; reaching it starts a flush
+     *                            early, and beyond it games are written straight through
+     */
+    public WriteBehindGameDAO(GameDAO delegate, long flushIntervalMillis, int maxPending) {
+        this.delegate = delegate;
+        this.maxPending = maxPending;
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Integer createGame(String gameName) throws DataAccessException {
+        return delegate.createGame(gameName);
+    }
+
+    /*
+     * Reads look at the pending games before asking the delegate. A flush can
+     * write a game and stop holding it between the two steps, and the pending
+     * copy taken first is then at least as new as the row the delegate returned.
+     */
+
+    @Override
+    public GameData getGameByGameName(String gameName) throws DataAccessException {
+        Map<Integer, ChessGame> pendingGames = Map.copyOf(pending);
+        GameData gameData = delegate.getGameByGameName(gameName);
+        return (gameData == null) ? null : withPendingGame(gameData, pendingGames.get(gameData.gameID()));
+    }
+
+    @Override
+    public GameData getGameByGameID(Integer gameID) throws DataAccessException {
+        ChessGame pendingGame = pending.get(gameID);
+        return withPendingGame(delegate.getGameByGameID(gameID), pendingGame);
+    }
+
+    @Override
+    public List<GameData> listAllGames() {
+        Map<Integer, ChessGame> pendingGames = Map.copyOf(pending);
+        List<GameData> games = new ArrayList<>();
+        for (GameData gameData : delegate.listAllGames()) {
+            games.add(withPendingGame(gameData, pendingGames.get(gameData.gameID())));
+        }
+        return games;
+    }
+
+    /**
+     * Records the game to be written later. Once closed, or while the most games
+     * allowed are waiting and this one is not among them, writes straight through.
+     */
+    @Override
+    public void updateGame(Integer gameID, ChessGame game) throws DataAccessException {
+        if (closed) {
+            // An older state of this game may still be pending; write it first.
+            flush();
+            delegate.updateGame(gameID, game);
+            return;
+        }
+        if (pending.size() >= maxPending && !pending.containsKey(gameID)) {
+            writeThroughs.increment();
+            startFlush();
+            delegate.updateGame(gameID, game);
+            return;
+        }
+        pending.put(gameID, new ChessGame(game));
+        updates.increment();
+        if (closed) {
+            // close() set the flag before its last flush, so either that flush saw
+            // this game or this check sees the flag; write it now in case it was missed.
+            flush();
+        } else if (pending.size() >= maxPending) {
+            startFlush();
+        }
+    }
+
+    @Override
+    public void updateWhitePlayer(Integer gameID, String whiteUsername) throws DataAccessException {
+        delegate.updateWhitePlayer(gameID, whiteUsername);
+    }
+
+    @Override
+    public void updateBlackPlayer(Integer gameID, String blackUsername) throws DataAccessException {
+        delegate.updateBlackPlayer(gameID, blackUsername);
+    }
+
+    @Override
+    public void endGame(Integer gameID) throws DataAccessException {
+        ChessGame game = getGameByGameID(gameID).game();
+        game.endGame();
+        updateGame(gameID, game);
+    }
+
+    @Override
+    public void deleteAll() {
+        pending.clear();
+        delegate.deleteAll();
+    }
+
+    /**
+     * Writes every pending game to the delegate in one batch. A game updated
+     * again while the batch is written stays pending for the next flush.
+     */
+    public synchronized void flush() throws DataAccessException {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Integer, ChessGame> batch = new HashMap<>(pending);
+        delegate.updateGames(batch);
+        batch.forEach(pending::remove);
+        written.add(batch.size());
+    }
+
+    /**
+     * Stops the background flushes and writes everything still pending. Later
+     * updates go straight to the delegate.
+     */
+    @Override
+    public void close() throws DataAccessException {
+        closed = true;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    /**
+     * @return games waiting to be written
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * @return calls to {@link #updateGame} that were deferred
+     */
+    public long getUpdateCount() {
+        return updates.sum();
+    }
+
+    /**
+     * @return games written to the delegate; the difference from the update
+     * count is how many writes coalescing saved
+     */
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getFailedFlushCount() {
+        return failedFlushes.sum();
+    }
+
+    /**
+     * @return games written straight through because the most games allowed
+     * were already waiting; a rising count means flushes are not keeping up
+     */
+    public long getWriteThroughCount() {
+        return writeThroughs.sum();
+    }
+
+    /**
+     * Asks the flusher for an early flush, unless one is already waiting to run.
+     */
+    private void startFlush() {
+        if (!flushQueued.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            flusher.execute(this::flushQuietly);
+        } catch (RejectedExecutionException e) {
+            // Closing at the same time; close() writes what is pending.
+            flushQueued.set(false);
+        }
+    }
+
+    private void flushQuietly() {
+        flushQueued.set(false);
+        try {
+            flush();
+        } catch (DataAccessException | RuntimeException e) {
+            // The games stay pending and the next flush tries again.
+            failedFlushes.increment();
+        }
+    }
+
+    private static GameData withPendingGame(GameData gameData, ChessGame game) {
+        if (gameData == null) {
+            return null;
+        }
+        if (game == null) {
+            return gameData;
+        }
+        return new GameData(gameData.gameID(), gameData.whiteUsername(), gameData.blackUsername(),
+                gameData.gameName(), new ChessGame(game));
+    }
+}
@@ -31,11 +31,12 @@ public class Server {
     private final JoinGameService joinGameService;
     private final WebSocketService wsService;
     private final WebSocketHandler wsHandler;
+    private final GameDAO gameDAO;
 
     public Server() {
         var authDAO = new SQLAuthDAO();
-        var gameDAO = new SQLGameDAO();
         var userDAO = new SQLUserDAO();
+        gameDAO = createGameDAO();
         registerService = new RegisterService(authDAO, userDAO);
         clearService = new ClearService(gameDAO, authDAO, userDAO);
         loginService = new LoginService(userDAO, authDAO);
@@ -71,6 +72,35 @@ public class Server {
 
     public void stop() {
         javalin.stop();
+        if (gameDAO instanceof WriteBehindGameDAO writeBehind) {
+            try {
+                writeBehind.close();
+            } catch (DataAccessException e) {
+                throw new RuntimeException("Could not save pending games.", e);
+            }
+        }
+    }
+
+    /**
+     * Games are written straight to the database unless db.properties sets
+     * db.writeBehind.flushMillis, in which case moves are acknowledged from
+     * memory and written in batches at most that many milliseconds later.
+     * db.moveLog.snapshotInterval instead appends each move to a move log; the
+     * two cannot be combined, since write-behind stores moves as whole games.
+     */
+    private static GameDAO createGameDAO() {
+        int snapshotInterval = Integer.parseInt(DatabaseManager.getProperty("db.moveLog.snapshotInterval", "0"));
+        long flushMillis = Long.parseLong(DatabaseManager.getProperty("db.writeBehind.flushMillis", "0"));
+        if (snapshotInterval > 0 && flushMillis > 0) {
+            throw new IllegalStateException(
+                    "db.writeBehind.flushMillis and db.moveLog.snapshotInterval cannot both be set.");
+        }
+        var sqlGameDAO = new SQLGameDAO(snapshotInterval);
+        if (flushMillis <= 0) {
+            return sqlGameDAO;
+        }
+        int maxPending = Integer.parseInt(DatabaseManager.getProperty("db.writeBehind.maxPending", "256"));
+        return new WriteBehindGameDAO(sqlGameDAO, flushMillis, maxPending);
     }
 
     private void exceptionHandler(ResponseException ex, Context ctx) {
@@ -4,6 +4,7 @@ public class ServerMain {
     public static void main(String[] args) {
         Server server = new Server();
         server.run(8080);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
 
         System.out.println("♕ 240 Chess Server");
     }
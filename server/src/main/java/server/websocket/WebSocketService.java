@@ -3,6 +3,7 @@ package server.websocket;
 import chess.ChessGame;
 import chess.ChessMove;
 import chess.InvalidMoveException;
+import chess.notation.San;
 import dataaccess.AuthDAO;
 import dataaccess.DataAccessException;
 import dataaccess.GameDAO;
@@ -176,11 +177,12 @@ public class WebSocketService {
             return;
         }
 
-        if (!applyMove(ctx, moveContext, command.getMove())) {
+        String notation = applyMove(ctx, moveContext, command.getMove());
+        if (notation == null) {
             return;
         }
 
-        broadcastMoveResults(ctx, command.getMove(), moveContext, connectionManager);
+        broadcastMoveResults(ctx, notation, moveContext, connectionManager);
     }
 
     private CommandContext requireCommandContext(UserGameCommand command) throws NotAuthenticatedException,
@@ -235,29 +237,30 @@ public class WebSocketService {
         }
     }
 
-    private boolean applyMove(WsMessageContext ctx, MoveContext moveContext, ChessMove move) {
+    /**
+     * @return the move in SAN if it was legal and saved, otherwise null
+     */
+    private String applyMove(WsMessageContext ctx, MoveContext moveContext, ChessMove move) {
         try {
+            // SAN depends on the position before the move; an illegal move has no SAN.
+            String notation = San.format(moveContext.game(), move);
             moveContext.game().makeMove(move);
-            gameDAO.updateGame(moveContext.gameID(), moveContext.game());
-            return true;
-        } catch (InvalidMoveException e) {
+            gameDAO.recordMove(moveContext.gameID(), moveContext.game(), move);
+            return notation;
+        } catch (InvalidMoveException | IllegalArgumentException e) {
             sendError(ctx, "Invalid move.");
-            return false;
+            return null;
         } catch (DataAccessException e) {
             sendError(ctx, "Server error.");
-            return false;
+            return null;
         }
     }
 
-    private void broadcastMoveResults(WsMessageContext ctx, ChessMove move, MoveContext moveContext,
+    private void broadcastMoveResults(WsMessageContext ctx, String notation, MoveContext moveContext,
                                       ConnectionManager connectionManager) {
         try {
             connectionManager.broadcastMessageToGame(moveContext.gameID(), null, new LoadGameMessage(moveContext.game()));
-            var notification = new NotificationMessage(moveContext.username() +
-                    " moved from " +
-                    move.getStartPosition().toString() +
-                    " to " +
-                    move.getEndPosition().toString() + ".");
+            var notification = new NotificationMessage(moveContext.username() + " played " + notation + ".");
             connectionManager.broadcastMessageToGame(moveContext.gameID(), ctx.session, notification);
 
             if (moveContext.game().isInCheckmate(moveContext.otherPlayerColor())) {
@@ -274,6 +277,27 @@ public class WebSocketService {
                 return;
             }
 
+            if (moveContext.game().isInsufficientMaterial()) {
+                var drawNotification = new NotificationMessage("Draw by insufficient material.");
+                connectionManager.broadcastMessageToGame(moveContext.gameID(), null, drawNotification);
+                gameDAO.endGame(moveContext.gameID());
+                return;
+            }
+
+            if (moveContext.game().isThreefoldRepetition()) {
+                var drawNotification = new NotificationMessage("Draw by threefold repetition.");
+                connectionManager.broadcastMessageToGame(moveContext.gameID(), null, drawNotification);
+                gameDAO.endGame(moveContext.gameID());
+                return;
+            }
+
+            if (moveContext.game().isFiftyMoveRule()) {
+                var drawNotification = new NotificationMessage("Draw by the fifty-move rule.");
+                connectionManager.broadcastMessageToGame(moveContext.gameID(), null, drawNotification);
+                gameDAO.endGame(moveContext.gameID());
+                return;
+            }
+
             if (moveContext.game().isInCheck(moveContext.otherPlayerColor())) {
                 var checkNotification = new NotificationMessage(moveContext.otherPlayerUsername() + " is in check!");
                 connectionManager.broadcastMessageToGame(moveContext.gameID(), null, checkNotification);
@@ -0,0 +1,127 @@
+package dataaccess;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+
+    @Test
+    void reusesReturnedConnections() throws SQLException {
+        var pool = new ConnectionPool(this::open, new ConnectionPool.Settings(2, 100, 60_000, 60_000, 1));
+
+        try (Connection conn = pool.getConnection()) {
+            assertEquals(1, pool.getActiveCount());
+        }
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+
+        assertEquals(1, pool.getCreatedCount());
+        assertEquals(2, pool.getAcquiredCount());
+        assertEquals(1, pool.getIdleCount());
+        assertEquals(0, pool.getActiveCount());
+        assertFalse(opened.get(0).closed);
+    }
+
+    @Test
+    void waitsAtMostMaxWaitWhenExhausted() throws SQLException {
+        var pool = new ConnectionPool(this::open, new ConnectionPool.Settings(1, 20, 60_000, 60_000, 1));
+
+        try (Connection held = pool.getConnection()) {
+            assertThrows(SQLTimeoutException.class, pool::getConnection);
+        }
+
+        assertEquals(1, pool.getTimeoutCount());
+        assertDoesNotThrow(() -> pool.getConnection().close());
+    }
+
+    @Test
+    void discardsConnectionsThatFailValidation() throws SQLException {
+        var pool = new ConnectionPool(this::open, new ConnectionPool.Settings(2, 100, 60_000, 0, 1));
+
+        pool.getConnection().close();
+        opened.get(0).valid = false;
+        sleep(5);
+        pool.getConnection().close();
+
+        assertEquals(2, pool.getCreatedCount());
+        assertEquals(1, pool.getDiscardedCount());
+        assertTrue(opened.get(0).closed);
+    }
+
+    @Test
+    void evictsIdleConnections() throws SQLException {
+        var pool = new ConnectionPool(this::open, new ConnectionPool.Settings(2, 100, 1, 60_000, 1));
+
+        pool.getConnection().close();
+        sleep(5);
+        pool.getConnection().close();
+
+        assertEquals(2, pool.getCreatedCount());
+        assertEquals(1, pool.getEvictedCount());
+        assertTrue(opened.get(0).closed);
+    }
+
+    @Test
+    void returnedHandleCannotBeUsed() throws SQLException {
+        var pool = new ConnectionPool(this::open, ConnectionPool.Settings.DEFAULTS);
+
+        Connection conn = pool.getConnection();
+        conn.close();
+        conn.close();
+
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::getAutoCommit);
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    void closingPoolClosesIdleConnections() throws SQLException {
+        var pool = new ConnectionPool(this::open, ConnectionPool.Settings.DEFAULTS);
+
+        pool.getConnection().close();
+        pool.close();
+
+        assertTrue(opened.get(0).closed);
+        assertThrows(SQLException.class, pool::getConnection);
+    }
+
+    private Connection open() {
+        var fake = new FakeConnection();
+        opened.add(fake);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "close" -> {
+                        fake.closed = true;
+                        yield null;
+                    }
+                    case "isClosed" -> fake.closed;
+                    case "isValid" -> fake.valid;
+                    case "getAutoCommit" -> true;
+                    default -> null;
+                });
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class FakeConnection {
+        boolean closed;
+        boolean valid = true;
+    }
+}
@@ -6,6 +6,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 
 class DBHelperTest {
 
@@ -92,4 +93,33 @@ class DBHelperTest {
     @Test
     void getStringHelper() {
     }
+
+    @Test
+    void queryOneMapsWholeRow() throws DataAccessException {
+        DBHelper.updateHelper("INSERT INTO test_table(first_name, last_name) VALUES (?, ?)", "Ada", "Lovelace");
+
+        String fullName = DBHelper.queryOne("SELECT first_name, last_name FROM test_table WHERE first_name=?",
+                rs -> rs.getString("first_name") + " " + rs.getString("last_name"), "Ada");
+
+        assertEquals("Ada Lovelace", fullName);
+    }
+
+    @Test
+    void queryOneReturnsNullWithoutRows() throws DataAccessException {
+        String missing = DBHelper.queryOne("SELECT first_name FROM test_table WHERE first_name=?",
+                rs -> rs.getString("first_name"), "Nobody");
+
+        assertNull(missing);
+    }
+
+    @Test
+    void queryListMapsEveryRow() throws DataAccessException {
+        DBHelper.updateHelper("INSERT INTO test_table(first_name, last_name) VALUES (?, ?)", "Grace", "Hopper");
+        DBHelper.updateHelper("INSERT INTO test_table(first_name, last_name) VALUES (?, ?)", "Grace", "Kelly");
+
+        var lastNames = DBHelper.queryList("SELECT last_name FROM test_table WHERE first_name=? ORDER BY last_name",
+                rs -> rs.getString("last_name"), "Grace");
+
+        assertEquals(List.of("Hopper", "Kelly"), lastNames);
+    }
 }
\ No newline at end of file
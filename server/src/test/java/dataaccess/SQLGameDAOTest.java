@@ -1,12 +1,17 @@
 package dataaccess;
 
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.InvalidMoveException;
+import chess.notation.Uci;
 import chess.serialization.GsonFactory;
 import model.GameData;
 import org.junit.jupiter.api.Test;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -132,6 +137,132 @@ class SQLGameDAOTest extends SQLDAOTestHelper {
         assertThrows(DataAccessException.class, () -> gameDAO.updateBlackPlayer(gameID, "missing-user"));
     }
 
+    @Test
+    void updateWhitePlayerQuotedUsername() throws DataAccessException {
+        var gameID = gameDAO.createGame("update-white-quoted");
+        var user = createAndInsertUser("o'brien");
+
+        gameDAO.updateWhitePlayer(gameID, user.username());
+
+        assertEquals("o'brien", gameDAO.getGameByGameID(gameID).whiteUsername());
+    }
+
+    @Test
+    void updateBlackPlayerClearsWithNull() throws DataAccessException {
+        var gameID = gameDAO.createGame("update-black-clear");
+        var user = createAndInsertUser("leaving-player");
+        gameDAO.updateBlackPlayer(gameID, user.username());
+
+        gameDAO.updateBlackPlayer(gameID, null);
+
+        assertNull(gameDAO.getGameByGameID(gameID).blackUsername());
+    }
+
+    @Test
+    void updateGameStoresMoves() throws DataAccessException, InvalidMoveException {
+        var gameID = gameDAO.createGame("update-game");
+        var game = new ChessGame();
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+
+        gameDAO.updateGame(gameID, game);
+
+        var storedGame = gameDAO.getGameByGameID(gameID).game();
+        assertEquals(game.getBoard(), storedGame.getBoard());
+        assertEquals(ChessGame.TeamColor.BLACK, storedGame.getTeamTurn());
+    }
+
+    @Test
+    void recordMoveAppendsToMoveLog() throws DataAccessException, InvalidMoveException, SQLException {
+        var moveLogDAO = new SQLGameDAO(4);
+        var gameID = moveLogDAO.createGame("move-log");
+        var game = new ChessGame();
+
+        playAndRecord(moveLogDAO, gameID, game, Uci.parse("e2e4"), Uci.parse("e7e5"), Uci.parse("g1f3"));
+
+        assertEquals(3, countMoves(gameID));
+        assertEquals(ChessGame.TeamColor.WHITE, fetchStoredGame(gameID).game().getTeamTurn());
+        var storedGame = moveLogDAO.getGameByGameID(gameID).game();
+        assertEquals(game.getBoard(), storedGame.getBoard());
+        assertEquals(ChessGame.TeamColor.BLACK, storedGame.getTeamTurn());
+        assertEquals(game.getBoard(), moveLogDAO.listAllGames().get(0).game().getBoard());
+    }
+
+    @Test
+    void recordMoveSnapshotsAtInterval() throws DataAccessException, InvalidMoveException, SQLException {
+        var moveLogDAO = new SQLGameDAO(4);
+        var gameID = moveLogDAO.createGame("move-log-snapshot");
+        var game = new ChessGame();
+
+        playAndRecord(moveLogDAO, gameID, game, Uci.parse("e2e4"), Uci.parse("e7e5"), Uci.parse("g1f3"),
+                Uci.parse("b8c6"), Uci.parse("f1c4"));
+
+        assertEquals(1, countMoves(gameID));
+        assertEquals(game.getBoard(), gameDAO.getGameByGameID(gameID).game().getBoard());
+    }
+
+    @Test
+    void endGameSnapshotsMoveLog() throws DataAccessException, InvalidMoveException, SQLException {
+        var moveLogDAO = new SQLGameDAO(4);
+        var gameID = moveLogDAO.createGame("move-log-end");
+        var game = new ChessGame();
+        playAndRecord(moveLogDAO, gameID, game, Uci.parse("e2e4"), Uci.parse("e7e5"));
+
+        moveLogDAO.endGame(gameID);
+
+        assertEquals(0, countMoves(gameID));
+        var storedGame = fetchStoredGame(gameID).game();
+        assertFalse(storedGame.inProgress());
+        assertEquals(game.getBoard(), storedGame.getBoard());
+    }
+
+    @Test
+    void switchingMoveLogOffKeepsLoggedMoves() throws DataAccessException, InvalidMoveException, SQLException {
+        var moveLogDAO = new SQLGameDAO(4);
+        var gameID = moveLogDAO.createGame("move-log-off");
+        var game = new ChessGame();
+        playAndRecord(moveLogDAO, gameID, game, Uci.parse("e2e4"), Uci.parse("e7e5"), Uci.parse("g1f3"));
+
+        var readBack = gameDAO.getGameByGameID(gameID).game();
+        assertEquals(game.getBoard(), readBack.getBoard());
+        playAndRecord(gameDAO, gameID, readBack, Uci.parse("b8c6"));
+
+        assertEquals(0, countMoves(gameID));
+        assertEquals(readBack.getBoard(), fetchStoredGame(gameID).game().getBoard());
+        assertEquals(readBack.getBoard(), moveLogDAO.getGameByGameID(gameID).game().getBoard());
+    }
+
+    @Test
+    void switchingMoveLogOnAfterWholeGameWrites() throws DataAccessException, InvalidMoveException, SQLException {
+        var gameID = gameDAO.createGame("move-log-on");
+        var game = new ChessGame();
+        playAndRecord(gameDAO, gameID, game, Uci.parse("e2e4"), Uci.parse("e7e5"));
+
+        var moveLogDAO = new SQLGameDAO(4);
+        playAndRecord(moveLogDAO, gameID, game, Uci.parse("g1f3"));
+
+        assertEquals(1, countMoves(gameID));
+        assertEquals(game.getBoard(), gameDAO.getGameByGameID(gameID).game().getBoard());
+        assertEquals(ChessGame.TeamColor.BLACK, moveLogDAO.getGameByGameID(gameID).game().getTeamTurn());
+    }
+
+    @Test
+    void batchUpdateCompactsMoveLog() throws DataAccessException, InvalidMoveException, SQLException {
+        var moveLogDAO = new SQLGameDAO(4);
+        var gameID = moveLogDAO.createGame("move-log-batch");
+        var game = new ChessGame();
+        playAndRecord(moveLogDAO, gameID, game, Uci.parse("e2e4"), Uci.parse("e7e5"));
+
+        gameDAO.updateGames(Map.of(gameID, game));
+
+        assertEquals(0, countMoves(gameID));
+        assertEquals(game.getBoard(), moveLogDAO.getGameByGameID(gameID).game().getBoard());
+    }
+
+    @Test
+    void snapshotIntervalOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SQLGameDAO(SQLGameDAO.MAX_SNAPSHOT_INTERVAL + 1));
+    }
+
     @Test
     void deleteAllPositive() throws DataAccessException, SQLException {
         gameDAO.createGame("delete-all-game-first");
@@ -161,6 +292,24 @@ class SQLGameDAOTest extends SQLDAOTestHelper {
         }
     }
 
+    private static void playAndRecord(SQLGameDAO dao, int gameID, ChessGame game, ChessMove... moves)
+            throws DataAccessException, InvalidMoveException {
+        for (ChessMove move : moves) {
+            game.makeMove(move);
+            dao.recordMove(gameID, game, move);
+        }
+    }
+
+    private int countMoves(int gameID) throws SQLException {
+        try (var ps = cn.prepareStatement("SELECT COUNT(*) AS count FROM moves WHERE game_id = ?")) {
+            ps.setInt(1, gameID);
+            try (ResultSet rs = ps.executeQuery()) {
+                assertTrue(rs.next());
+                return rs.getInt("count");
+            }
+        }
+    }
+
     private int countGames() throws SQLException {
         try (var ps = cn.prepareStatement("SELECT COUNT(*) AS count FROM games");
              ResultSet rs = ps.executeQuery()) {
@@ -0,0 +1,241 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.InvalidMoveException;
+import chess.notation.Uci;
+import model.GameData;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WriteBehindGameDAOTest {
+
+    private StoredGames stored;
+    private WriteBehindGameDAO gameDAO;
+
+    @BeforeEach
+    void setUp() {
+        stored = new StoredGames();
+        // Long enough that only explicit flushes write during a test.
+        gameDAO = new WriteBehindGameDAO(stored, 60_000, 100);
+    }
+
+    @AfterEach
+    void tearDown() throws DataAccessException {
+        gameDAO.close();
+    }
+
+    @Test
+    void updatesAreReadBackBeforeTheyAreWritten() throws DataAccessException, InvalidMoveException {
+        int gameID = gameDAO.createGame("pending");
+        ChessGame game = new ChessGame();
+        game.makeMove(Uci.parse("e2e4"));
+
+        gameDAO.updateGame(gameID, game);
+
+        assertEquals(ChessGame.TeamColor.BLACK, gameDAO.getGameByGameID(gameID).game().getTeamTurn());
+        assertEquals(ChessGame.TeamColor.BLACK, gameDAO.getGameByGameName("pending").game().getTeamTurn());
+        assertEquals(ChessGame.TeamColor.WHITE, stored.getGameByGameID(gameID).game().getTeamTurn());
+    }
+
+    @Test
+    void flushWritesOnlyTheLatestState() throws DataAccessException, InvalidMoveException {
+        int gameID = gameDAO.createGame("coalesced");
+        ChessGame game = new ChessGame();
+        game.makeMove(Uci.parse("e2e4"));
+        gameDAO.updateGame(gameID, game);
+        game.makeMove(Uci.parse("e7e5"));
+        gameDAO.updateGame(gameID, game);
+        game.makeMove(Uci.parse("g1f3"));
+        gameDAO.updateGame(gameID, game);
+
+        gameDAO.flush();
+
+        assertEquals(3, gameDAO.getUpdateCount());
+        assertEquals(1, gameDAO.getWrittenCount());
+        assertEquals(0, gameDAO.getPendingCount());
+        assertEquals(game.getBoard(), stored.getGameByGameID(gameID).game().getBoard());
+    }
+
+    @Test
+    void changesAfterUpdateAreNotSaved() throws DataAccessException, InvalidMoveException {
+        int gameID = gameDAO.createGame("copied");
+        ChessGame game = new ChessGame();
+        gameDAO.updateGame(gameID, game);
+
+        game.makeMove(Uci.parse("e2e4"));
+
+        assertEquals(ChessGame.TeamColor.WHITE, gameDAO.getGameByGameID(gameID).game().getTeamTurn());
+    }
+
+    @Test
+    void closeDrainsAndWritesThroughAfterwards() throws DataAccessException, InvalidMoveException {
+        int gameID = gameDAO.createGame("drained");
+        ChessGame game = new ChessGame();
+        game.makeMove(Uci.parse("e2e4"));
+        gameDAO.updateGame(gameID, game);
+
+        gameDAO.close();
+        assertEquals(ChessGame.TeamColor.BLACK, stored.getGameByGameID(gameID).game().getTeamTurn());
+
+        gameDAO.endGame(gameID);
+        assertFalse(stored.getGameByGameID(gameID).game().inProgress());
+        assertEquals(0, gameDAO.getPendingCount());
+    }
+
+    @Test
+    void readDuringFlushReturnsPendingGame() throws DataAccessException, InvalidMoveException {
+        int gameID = gameDAO.createGame("racing");
+        ChessGame game = new ChessGame();
+
+        game.makeMove(Uci.parse("e2e4"));
+        gameDAO.updateGame(gameID, game);
+        stored.afterRead = this::flush;
+        assertEquals(ChessGame.TeamColor.BLACK, gameDAO.getGameByGameID(gameID).game().getTeamTurn());
+        assertEquals(0, gameDAO.getPendingCount());
+
+        game.makeMove(Uci.parse("e7e5"));
+        gameDAO.updateGame(gameID, game);
+        stored.afterRead = this::flush;
+        assertEquals(ChessGame.TeamColor.WHITE, gameDAO.getGameByGameName("racing").game().getTeamTurn());
+
+        game.makeMove(Uci.parse("g1f3"));
+        gameDAO.updateGame(gameID, game);
+        stored.afterRead = this::flush;
+        assertEquals(ChessGame.TeamColor.BLACK, gameDAO.listAllGames().get(0).game().getTeamTurn());
+    }
+
+    @Test
+    void writesThroughWhenPendingIsFull() throws DataAccessException, InvalidMoveException {
+        var smallDAO = new WriteBehindGameDAO(stored, 60_000, 1);
+        int first = smallDAO.createGame("first");
+        int second = smallDAO.createGame("second");
+        stored.failBatches = true;
+
+        ChessGame game = new ChessGame();
+        game.makeMove(Uci.parse("e2e4"));
+        smallDAO.updateGame(first, game);
+        smallDAO.updateGame(second, game);
+        smallDAO.updateGame(first, game);
+
+        assertEquals(1, smallDAO.getPendingCount());
+        assertEquals(1, smallDAO.getWriteThroughCount());
+        assertEquals(ChessGame.TeamColor.BLACK, stored.getGameByGameID(second).game().getTeamTurn());
+        assertEquals(ChessGame.TeamColor.WHITE, stored.getGameByGameID(first).game().getTeamTurn());
+
+        stored.failBatches = false;
+        smallDAO.close();
+        assertEquals(ChessGame.TeamColor.BLACK, stored.getGameByGameID(first).game().getTeamTurn());
+    }
+
+    @Test
+    void updatesRacingCloseAreWritten() throws Exception {
+        ChessGame game = new ChessGame();
+        game.makeMove(Uci.parse("e2e4"));
+        for (int round = 0; round < 50; round++) {
+            var racingStore = new StoredGames();
+            var racingDAO = new WriteBehindGameDAO(racingStore, 60_000, 1_000);
+            int gameID = racingDAO.createGame("racing-close");
+            var started = new CountDownLatch(1);
+            var updater = new Thread(() -> {
+                started.countDown();
+                for (int i = 0; i < 200; i++) {
+                    try {
+                        racingDAO.updateGame(gameID, game);
+                    } catch (DataAccessException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            });
+
+            updater.start();
+            started.await();
+            racingDAO.close();
+            updater.join();
+
+            assertEquals(0, racingDAO.getPendingCount(), "round " + round);
+            assertEquals(ChessGame.TeamColor.BLACK, racingStore.getGameByGameID(gameID).game().getTeamTurn());
+        }
+    }
+
+    @Test
+    void flushesInTheBackground() throws DataAccessException, InterruptedException {
+        var quickDAO = new WriteBehindGameDAO(stored, 5, 100);
+        int gameID = quickDAO.createGame("background");
+        ChessGame game = new ChessGame();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        quickDAO.updateGame(gameID, game);
+
+        for (int i = 0; i < 200 && quickDAO.getPendingCount() > 0; i++) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(ChessGame.TeamColor.BLACK, stored.getGameByGameID(gameID).game().getTeamTurn());
+        quickDAO.close();
+    }
+
+    private void flush() {
+        try {
+            gameDAO.flush();
+        } catch (DataAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Stored games whose batch writes can be made to fail, and whose reads can
+     * run something after the row is read, as a flush on another thread might.
+     */
+    private static class StoredGames extends MemoryGameDAO {
+        Runnable afterRead;
+        volatile boolean failBatches;
+
+        @Override
+        public GameData getGameByGameName(String gameName) throws DataAccessException {
+            GameData gameData = super.getGameByGameName(gameName);
+            runAfterRead();
+            return gameData;
+        }
+
+        @Override
+        public GameData getGameByGameID(Integer gameID) throws DataAccessException {
+            GameData gameData = super.getGameByGameID(gameID);
+            runAfterRead();
+            return gameData;
+        }
+
+        @Override
+        public List<GameData> listAllGames() {
+            List<GameData> games = super.listAllGames();
+            runAfterRead();
+            return games;
+        }
+
+        @Override
+        public synchronized void updateGame(Integer gameID, ChessGame game) throws DataAccessException {
+            super.updateGame(gameID, game);
+        }
+
+        @Override
+        public void updateGames(Map<Integer, ChessGame> games) throws DataAccessException {
+            if (failBatches) {
+                throw new DataAccessException("Database is unavailable.");
+            }
+            super.updateGames(games);
+        }
+
+        private void runAfterRead() {
+            Runnable hook = afterRead;
+            afterRead = null;
+            if (hook != null) {
+                hook.run();
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package chess;
+
+/**
+ * Helpers for the 64-bit board representation used by {@link ChessBoard}.
+ * <p>
+ * Squares are numbered 0 to 63 starting at a1 (row 1, column 1) and moving
+ * across each row before moving up, so bit {@code n} of a bitboard is set when
+ * square {@code n} is part of the set.
+ */
+public final class Bitboard {
+
+    public static final int NO_SQUARE = -1;
+
+    public static final long FILE_A = 0x0101010101010101L;
+    public static final long FILE_H = FILE_A << 7;
+    public static final long RANK_1 = 0xFFL;
+    public static final long RANK_8 = RANK_1 << 56;
+    public static final long LIGHT_SQUARES = 0x55AA55AA55AA55AAL;
+    public static final long DARK_SQUARES = ~LIGHT_SQUARES;
+
+    private static final int PIECE_TYPES = ChessPiece.PieceType.values().length;
+
+    private Bitboard() {
+    }
+
+    public static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    public static boolean contains(long bitboard, int square) {
+        return (bitboard & (1L << square)) != 0;
+    }
+
+    /**
+     * @return the lowest square in the set; callers must check the set is not empty
+     */
+    public static int firstSquare(long bitboard) {
+        return Long.numberOfTrailingZeros(bitboard);
+    }
+
+    public static int count(long bitboard) {
+        return Long.bitCount(bitboard);
+    }
+
+    public static int colorIndex(ChessGame.TeamColor color) {
+        return color.ordinal();
+    }
+
+    /**
+     * @return the slot for a piece of the given color and type, from 0 to 11
+     */
+    public static int pieceIndex(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * PIECE_TYPES + type.ordinal();
+    }
+
+    public static int pieceIndex(ChessPiece piece) {
+        return pieceIndex(piece.getTeamColor(), piece.getPieceType());
+    }
+}
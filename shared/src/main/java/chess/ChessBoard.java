@@ -1,5 +1,8 @@
 package chess;
 
+import chess.piecemoves.SlidingAttacks;
+import chess.piecemoves.StepAttacks;
+
 import java.util.*;
 
 /**
@@ -9,8 +12,44 @@ import java.util.*;
  * signature of the existing methods.
  */
 public class ChessBoard implements Iterable<ChessBoard.PieceAtPosition> {
+    private static final int PIECE_SLOTS = 12;
+
+    public static final int WHITE_KINGSIDE = 1;
+    public static final int WHITE_QUEENSIDE = 2;
+    public static final int BLACK_KINGSIDE = 4;
+    public static final int BLACK_QUEENSIDE = 8;
+    public static final int ALL_CASTLING_RIGHTS = WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE;
+
+    private static final int EN_PASSANT_SHIFT = 4;
+    private static final int EN_PASSANT_COLUMN = 15 << EN_PASSANT_SHIFT;
+    private static final int EN_PASSANT_BLACK = 1 << 8;
+
     private ChessPiece[][] board;
 
+    /*
+     * Game state that the placement alone does not show, packed into one word:
+     * bits 0-3 the castling rights that have not been given up by moving the king
+     * or a rook, bits 4-7 the column of a pawn that just moved two squares (zero
+     * if none), and bit 8 set when that pawn is black. A new board starts with
+     * all castling rights, which is also what boards stored before this field
+     * existed get when Gson reads them back.
+     */
+    private int state;
+
+    /*
+     * Bitboards mirror the board array: one per color and piece type, plus one
+     * per color. They are not serialized; they are rebuilt from the board array
+     * the first time they are needed, which also covers boards read back by Gson.
+     * The Zobrist key of the piece placement is kept alongside them, and so is
+     * the material signature: four bits per piece index counting the pieces of
+     * that color and type, so material can be compared without scanning. Four
+     * bits hold the ten pieces of one kind that promotions can at most produce.
+     */
+    private transient long[] pieceBitboards;
+    private transient long[] colorBitboards;
+    private transient long placementKey;
+    private transient long materialSignature;
+
     static final ChessPosition WHITEKINGPOS = new ChessPosition(1, 5);
     static final ChessPosition BLACKKINGPOS = new ChessPosition(8, 5);
     static final ChessPosition[] WHITEROOKPOS = {
@@ -25,23 +64,27 @@ public class ChessBoard implements Iterable<ChessBoard.PieceAtPosition> {
 
     public ChessBoard() {
         board = new ChessPiece[8][8];
+        state = ALL_CASTLING_RIGHTS;
     }
 
+    /**
+     * Copies another board row by row, along with its bitboards and key if they
+     * have been built. Pieces are immutable, so the copy shares them.
+     *
+     * @param oldBoard the board to copy
+     */
     public ChessBoard(ChessBoard oldBoard) {
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-
-                int r = i+1;
-                int c = j+1;
-                ChessPosition currPosition = new ChessPosition(r, c);
-
-                if (oldBoard.getPiece(currPosition) != null) {
-                    board[i][j] = new ChessPiece(oldBoard.getPiece(currPosition));
-                }
-
-                board[i][j] = null;
+        board = new ChessPiece[8][];
+        for (int row = 0; row < 8; row++) {
+            board[row] = oldBoard.board[row].clone();
+        }
+        state = oldBoard.state;
 
-            }
+        if (oldBoard.pieceBitboards != null) {
+            colorBitboards = oldBoard.colorBitboards.clone();
+            pieceBitboards = oldBoard.pieceBitboards.clone();
+            placementKey = oldBoard.placementKey;
+            materialSignature = oldBoard.materialSignature;
         }
     }
 
@@ -52,7 +95,35 @@ public class ChessBoard implements Iterable<ChessBoard.PieceAtPosition> {
      * @param piece    the piece to add
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
-        board[position.getRow() - 1][position.getColumn() - 1] = piece;
+        addPiece(Bitboard.square(position), piece);
+    }
+
+    /**
+     * Adds a chess piece to the chessboard by square index (see {@link Bitboard})
+     *
+     * @param square where to add the piece to, 0 to 63
+     * @param piece  the piece to add, or null to clear the square
+     */
+    public void addPiece(int square, ChessPiece piece) {
+        ChessPiece replaced = board[square >>> 3][square & 7];
+        board[square >>> 3][square & 7] = piece;
+
+        if (pieceBitboards == null) {
+            return;
+        }
+        long bit = Bitboard.bit(square);
+        if (replaced != null) {
+            pieceBitboards[Bitboard.pieceIndex(replaced)] &= ~bit;
+            colorBitboards[Bitboard.colorIndex(replaced.getTeamColor())] &= ~bit;
+            placementKey ^= Zobrist.piece(replaced, square);
+            materialSignature -= signatureUnit(Bitboard.pieceIndex(replaced));
+        }
+        if (piece != null) {
+            pieceBitboards[Bitboard.pieceIndex(piece)] |= bit;
+            colorBitboards[Bitboard.colorIndex(piece.getTeamColor())] |= bit;
+            placementKey ^= Zobrist.piece(piece, square);
+            materialSignature += signatureUnit(Bitboard.pieceIndex(piece));
+        }
     }
 
     /**
@@ -66,6 +137,235 @@ public class ChessBoard implements Iterable<ChessBoard.PieceAtPosition> {
         return board[position.getRow() - 1][position.getColumn() - 1];
     }
 
+    /**
+     * Gets a chess piece on the chessboard by square index (see {@link Bitboard})
+     *
+     * @param square the square to get the piece from, 0 to 63
+     * @return Either the piece on the square, or null if the square is empty
+     */
+    public ChessPiece getPiece(int square) {
+        return board[square >>> 3][square & 7];
+    }
+
+    /**
+     * @return the set of squares holding pieces of the given color and type
+     */
+    public long getPieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        ensureBitboards();
+        return pieceBitboards[Bitboard.pieceIndex(color, type)];
+    }
+
+    /**
+     * @return the set of squares holding pieces of the given color
+     */
+    public long getOccupied(ChessGame.TeamColor color) {
+        ensureBitboards();
+        return colorBitboards[Bitboard.colorIndex(color)];
+    }
+
+    /**
+     * @return the set of squares holding any piece
+     */
+    public long getOccupied() {
+        ensureBitboards();
+        return colorBitboards[0] | colorBitboards[1];
+    }
+
+    /**
+     * Determines whether any piece of the given team attacks a square. Only the
+     * knight jumps, king steps, pawn diagonals and sliding rays that lead to the
+     * square are examined, so no moves are generated.
+     *
+     * @param square   the square to test, 0 to 63
+     * @param attacker the team whose attacks are considered
+     * @return True if a piece of the attacking team could capture on the square
+     */
+    public boolean isSquareAttacked(int square, ChessGame.TeamColor attacker) {
+        return attackersOf(square, attacker, getOccupied()) != 0;
+    }
+
+    /**
+     * Finds the pieces of the given team that attack a square, treating only the
+     * given squares as blocking sliding pieces. Passing a modified occupancy lets
+     * callers ask, for example, whether a square stays attacked once the king has
+     * stepped off the ray.
+     *
+     * @param square   the square to test, 0 to 63
+     * @param attacker the team whose attacks are considered
+     * @param occupied the squares that block sliding attacks
+     * @return the set of squares holding attacking pieces
+     */
+    public long attackersOf(int square, ChessGame.TeamColor attacker, long occupied) {
+        ChessGame.TeamColor defender = (attacker == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK
+                : ChessGame.TeamColor.WHITE;
+        long queens = getPieces(attacker, ChessPiece.PieceType.QUEEN);
+
+        return (StepAttacks.pawnAttacks(defender, square) & getPieces(attacker, ChessPiece.PieceType.PAWN))
+                | (StepAttacks.knightAttacks(square) & getPieces(attacker, ChessPiece.PieceType.KNIGHT))
+                | (StepAttacks.kingAttacks(square) & getPieces(attacker, ChessPiece.PieceType.KING))
+                | (SlidingAttacks.bishopAttacks(square, occupied)
+                    & (getPieces(attacker, ChessPiece.PieceType.BISHOP) | queens))
+                | (SlidingAttacks.rookAttacks(square, occupied)
+                    & (getPieces(attacker, ChessPiece.PieceType.ROOK) | queens));
+    }
+
+    /**
+     * @return the square of the given team's king, or {@link Bitboard#NO_SQUARE}
+     * if that team has no king on the board
+     */
+    public int getKingSquare(ChessGame.TeamColor color) {
+        long king = getPieces(color, ChessPiece.PieceType.KING);
+        return (king == 0) ? Bitboard.NO_SQUARE : Bitboard.firstSquare(king);
+    }
+
+    /**
+     * @return the Zobrist key of the pieces on the board, without side to move,
+     * castling rights or en passant (see {@link ChessGame#getPositionKey()})
+     */
+    public long getPlacementKey() {
+        ensureBitboards();
+        return placementKey;
+    }
+
+    /**
+     * @return the count of each piece on the board, packed four bits per piece
+     * index (see {@link Bitboard#pieceIndex}); boards with the same material have
+     * the same signature
+     */
+    public long getMaterialSignature() {
+        ensureBitboards();
+        return materialSignature;
+    }
+
+    /**
+     * @return how many pieces of the given color and type are on the board
+     */
+    public int getPieceCount(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieceCount(getMaterialSignature(), Bitboard.pieceIndex(color, type));
+    }
+
+    /**
+     * @return the amount added to a material signature by one piece of the given index
+     */
+    public static long signatureUnit(int pieceIndex) {
+        return 1L << (pieceIndex * 4);
+    }
+
+    /**
+     * @return the count of pieces with the given index in a material signature
+     */
+    public static int pieceCount(long signature, int pieceIndex) {
+        return (int) (signature >>> (pieceIndex * 4)) & 15;
+    }
+
+    /**
+     * Castling rights as a combination of {@link #WHITE_KINGSIDE},
+     * {@link #WHITE_QUEENSIDE}, {@link #BLACK_KINGSIDE} and {@link #BLACK_QUEENSIDE}.
+     * A right counts only while it has not been given up and the king and that
+     * rook stand on their starting squares.
+     */
+    public int getCastlingRights() {
+        int rights = state & ALL_CASTLING_RIGHTS;
+        if (rights == 0) {
+            return 0;
+        }
+        if (!holds(4, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING)) {
+            rights &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+        }
+        if (!holds(7, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK)) {
+            rights &= ~WHITE_KINGSIDE;
+        }
+        if (!holds(0, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK)) {
+            rights &= ~WHITE_QUEENSIDE;
+        }
+        if (!holds(60, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING)) {
+            rights &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+        }
+        if (!holds(63, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK)) {
+            rights &= ~BLACK_KINGSIDE;
+        }
+        if (!holds(56, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK)) {
+            rights &= ~BLACK_QUEENSIDE;
+        }
+        return rights;
+    }
+
+    /**
+     * @param rights the castling rights that have not been given up, as a
+     *               combination of the castling bits of this class
+     */
+    public void setCastlingRights(int rights) {
+        state = (state & ~ALL_CASTLING_RIGHTS) | (rights & ALL_CASTLING_RIGHTS);
+    }
+
+    /**
+     * @return the square a pawn passed over when it just moved two squares, where
+     * an enemy pawn may capture it en passant, or {@link Bitboard#NO_SQUARE}
+     */
+    public int getEnPassantSquare() {
+        int column = (state & EN_PASSANT_COLUMN) >>> EN_PASSANT_SHIFT;
+        if (column == 0) {
+            return Bitboard.NO_SQUARE;
+        }
+        return Bitboard.square(((state & EN_PASSANT_BLACK) != 0) ? 6 : 3, column);
+    }
+
+    /**
+     * @param square the square passed over by a pawn that just moved two squares,
+     *               on row 3 or 6, or {@link Bitboard#NO_SQUARE} to clear it
+     */
+    public void setEnPassantSquare(int square) {
+        int enPassant = 0;
+        if (square != Bitboard.NO_SQUARE) {
+            int row = Bitboard.row(square);
+            if (row != 3 && row != 6) {
+                throw new IllegalArgumentException("En passant square must be on row 3 or 6.");
+            }
+            enPassant = (Bitboard.column(square) << EN_PASSANT_SHIFT) | ((row == 6) ? EN_PASSANT_BLACK : 0);
+        }
+        state = (state & ALL_CASTLING_RIGHTS) | enPassant;
+    }
+
+    /**
+     * @return the packed castling and en passant state, for saving and restoring it
+     */
+    int getState() {
+        return state;
+    }
+
+    void setState(int state) {
+        this.state = state;
+    }
+
+    private boolean holds(int square, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        ChessPiece piece = getPiece(square);
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
+    }
+
+    private void ensureBitboards() {
+        if (pieceBitboards != null) {
+            return;
+        }
+        long[] pieces = new long[PIECE_SLOTS];
+        long[] colors = new long[2];
+        long key = 0;
+        long signature = 0;
+        for (int square = 0; square < 64; square++) {
+            ChessPiece piece = getPiece(square);
+            if (piece != null) {
+                pieces[Bitboard.pieceIndex(piece)] |= Bitboard.bit(square);
+                colors[Bitboard.colorIndex(piece.getTeamColor())] |= Bitboard.bit(square);
+                key ^= Zobrist.piece(piece, square);
+                signature += signatureUnit(Bitboard.pieceIndex(piece));
+            }
+        }
+        placementKey = key;
+        materialSignature = signature;
+        colorBitboards = colors;
+        pieceBitboards = pieces;
+    }
+
     public boolean checkClear(ChessPosition position) {
         if (position.outOfBounds()) {
             return false;
@@ -79,23 +379,25 @@ public class ChessBoard implements Iterable<ChessBoard.PieceAtPosition> {
      */
     public void resetBoard() {
         board = new ChessPiece[8][8];
+        pieceBitboards = null;
+        state = ALL_CASTLING_RIGHTS;
 
         for (int i = 0; i < 8; i++) {
-            board[1][i] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
-            board[6][i] = new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+            board[1][i] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+            board[6][i] = ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
         }
 
-        board[0][0] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
-        board[0][1] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        board[0][2] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        board[0][3] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
-        board[0][4] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
-        board[0][5] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
-        board[0][6] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
-        board[0][7] = new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        board[0][0] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        board[0][1] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        board[0][2] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+        board[0][3] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
+        board[0][4] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        board[0][5] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP);
+        board[0][6] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        board[0][7] = ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
 
         for (int i = 0; i < 8; i++) {
-            board[7][i] = new ChessPiece(ChessGame.TeamColor.BLACK, board[0][i].getPieceType());
+            board[7][i] = ChessPiece.of(ChessGame.TeamColor.BLACK, board[0][i].getPieceType());
         }
     }
 
@@ -119,20 +421,38 @@ public class ChessBoard implements Iterable<ChessBoard.PieceAtPosition> {
 
     @Override
     public Iterator<PieceAtPosition> iterator() {
+        return piecesIn(getOccupied());
+    }
+
+    /**
+     * @return the pieces of one team, visited straight from that team's occupancy
+     * bitboard, so the cost depends on how many pieces remain rather than on the
+     * size of the board
+     */
+    public Iterable<PieceAtPosition> pieces(ChessGame.TeamColor color) {
+        long occupied = getOccupied(color);
+        return () -> piecesIn(occupied);
+    }
 
-        List<PieceAtPosition> pieces = new ArrayList<>();
+    private Iterator<PieceAtPosition> piecesIn(long squares) {
+        return new Iterator<>() {
+            private long remaining = squares;
 
-        for (int i = 0; i < 8; i++) {
-            for (int j = 0; j < 8; j++) {
-                if (board[i][j] != null) {
-                    ChessPosition position = new ChessPosition(i + 1, j + 1);
-                    PieceAtPosition piece = new PieceAtPosition(getPiece(position), position);
-                    pieces.add(piece);
-                }
+            @Override
+            public boolean hasNext() {
+                return remaining != 0;
             }
-        }
 
-        return pieces.iterator();
+            @Override
+            public PieceAtPosition next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int square = Bitboard.firstSquare(remaining);
+                remaining &= remaining - 1;
+                return new PieceAtPosition(getPiece(square), ChessPosition.ofSquare(square));
+            }
+        };
     }
 
     @Override
@@ -161,11 +481,13 @@ public class ChessBoard implements Iterable<ChessBoard.PieceAtPosition> {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(board, that.board);
+        ensureBitboards();
+        that.ensureBitboards();
+        return Arrays.equals(pieceBitboards, that.pieceBitboards);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(board);
+        return Long.hashCode(getPlacementKey());
     }
 }
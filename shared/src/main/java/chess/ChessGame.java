@@ -1,5 +1,9 @@
 package chess;
 
+import chess.piecemoves.LegalMoveGenerator;
+import chess.piecemoves.MoveList;
+import chess.piecemoves.PackedMove;
+
 import java.util.*;
 
 /**
@@ -17,16 +21,97 @@ public class ChessGame {
     private static final int CASTLE_LEFT_KING_DEST = 3;
     private static final int CASTLE_RIGHT_KING_DEST = 7;
 
+    /*
+     * Layout of an undo record packed into a long by doMove:
+     * bits 0-5 from square, 6-11 to square, 12-14 promotion type (ordinal + 1),
+     * 15-18 captured piece (piece index + 1), 19-27 the board's castling and en
+     * passant state before the move, then single-bit flags.
+     */
+    private static final int UNDO_TO_SHIFT = 6;
+    private static final int UNDO_PROMOTION_SHIFT = 12;
+    private static final int UNDO_CAPTURED_SHIFT = 15;
+    private static final int UNDO_STATE_SHIFT = 19;
+    private static final int UNDO_STATE_MASK = (1 << 9) - 1;
+    private static final long UNDO_CASTLE = 1L << 28;
+    private static final long UNDO_EN_PASSANT = 1L << 29;
+    private static final long UNDO_BLACK_TO_MOVE = 1L << 30;
+    private static final long UNDO_RESET_CLOCK = 1L << 31;
+    private static final int UNDO_REPETITIONS_SHIFT = 32;
+    private static final int UNDO_CLOCK_SHIFT = 34;
+
+    private static final int FIFTY_MOVE_HALFMOVES = 100;
+    /** Initial size of a position history, which grows as needed up to HISTORY_LIMIT. */
+    private static final int HISTORY_CAPACITY = 16;
+    /** Position keys kept for repetitions; older positions fall under the fifty-move rule. */
+    private static final int HISTORY_LIMIT = FIFTY_MOVE_HALFMOVES;
+
+    /** Signature bits of the pieces that can always force or help a checkmate. */
+    private static final long MATING_MATERIAL = signatureMask(ChessPiece.PieceType.PAWN)
+            | signatureMask(ChessPiece.PieceType.ROOK)
+            | signatureMask(ChessPiece.PieceType.QUEEN);
+
     private TeamColor teamTurn;
     private ChessBoard board;
 
     private boolean gameOver;
 
+    /*
+     * Halfmoves since the last capture or pawn move, and the position keys seen
+     * since then: positionHistory[i % HISTORY_LIMIT] is the key of the position
+     * i halfmoves after that move. No earlier position can come back, so only
+     * these are compared to find a repetition, and the count for the current
+     * position is kept in repetitions. Past HISTORY_LIMIT halfmoves the array
+     * wraps around and the oldest keys are overwritten.
+     */
+    private int halfmoveClock;
+    private long[] positionHistory;
+    private int repetitions;
+    private int fullmoveNumber;
+
+    private transient long[] undoStack;
+    private transient int undoCount;
+    private transient MoveList scratchMoves;
+    private transient ArrayDeque<long[]> earlierHistories;
+    private transient ArrayDeque<long[]> spareHistories;
+    private transient LegalMoveCache moveCache;
+
     public ChessGame() {
         board = new ChessBoard();
         board.resetBoard();
         teamTurn = TeamColor.WHITE;
         gameOver = false;
+        halfmoveClock = 0;
+        positionHistory = new long[HISTORY_CAPACITY];
+        repetitions = 0;
+        fullmoveNumber = 1;
+        undoStack = new long[16];
+        undoCount = 0;
+        scratchMoves = new MoveList();
+        earlierHistories = new ArrayDeque<>();
+        spareHistories = new ArrayDeque<>();
+    }
+
+    /**
+     * Copies the position, turn, game-over state and draw bookkeeping of another
+     * game. The copy shares no mutable state with the original apart from its
+     * move cache, and starts with no moves to undo.
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        board = new ChessBoard(other.board);
+        teamTurn = other.teamTurn;
+        gameOver = other.gameOver;
+        halfmoveClock = other.halfmoveClock;
+        positionHistory = other.positionHistory.clone();
+        repetitions = other.repetitions;
+        fullmoveNumber = other.fullmoveNumber;
+        undoStack = new long[16];
+        undoCount = 0;
+        scratchMoves = new MoveList();
+        earlierHistories = new ArrayDeque<>();
+        spareHistories = new ArrayDeque<>();
+        moveCache = other.moveCache;
     }
 
     /**
@@ -53,6 +138,49 @@ public class ChessGame {
         BLACK
     }
 
+    /**
+     * Zobrist key of the current position: the piece placement, the side to move,
+     * the castling rights and the en passant column. Two games with the same key can be treated as the
+     * same position for caching and repetition checks.
+     *
+     * @return the 64-bit position key
+     */
+    public long getPositionKey() {
+        return positionKey(teamTurn);
+    }
+
+    private long positionKey(TeamColor team) {
+        long key = board.getPlacementKey()
+                ^ Zobrist.sideToMove(team)
+                ^ Zobrist.castling(board.getCastlingRights());
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant == Bitboard.NO_SQUARE) {
+            return key;
+        }
+        key ^= Zobrist.enPassant(Bitboard.column(enPassant));
+        // White captures en passant on row 6 and black on row 3.
+        int captureRow = (team == TeamColor.WHITE) ? 6 : 3;
+        return (Bitboard.row(enPassant) == captureRow) ? key : key ^ Zobrist.enPassantOffTurn();
+    }
+
+    /**
+     * @return the cache {@link #validMoves} and {@link #validTeamMoves} use, or
+     * null if they generate moves every time
+     */
+    public LegalMoveCache getMoveCache() {
+        return moveCache;
+    }
+
+    /**
+     * Sets a cache for {@link #validMoves} and {@link #validTeamMoves}, which
+     * several games may share. Games start without one.
+     *
+     * @param moveCache the cache to use, or null to generate moves every time
+     */
+    public void setMoveCache(LegalMoveCache moveCache) {
+        this.moveCache = moveCache;
+    }
+
     public void endGame() {
         gameOver = true;
     }
@@ -75,38 +203,35 @@ public class ChessGame {
             throw new RuntimeException("Empty position passed to validMoves.");
         }
 
-        Collection<ChessMove> possibleMoves = piece.pieceMoves(board, startPosition);
-        Collection<ChessMove> validMoves = new ArrayList<>();
-
-        for (ChessMove move : possibleMoves) {
-
-            ChessPiece alteredPiece = board.getPiece(move.getEndPosition());
-
-            board.addPiece(move.getStartPosition(), null);
-            board.addPiece(move.getEndPosition(), piece);
-
-            if (!isInCheck(piece.getTeamColor())) {
-                validMoves.add(move);
+        int from = Bitboard.square(startPosition);
+        List<ChessMove> moves = new ArrayList<>();
+        for (int move : cachedLegalMoves(piece.getTeamColor())) {
+            if (PackedMove.from(move) == from) {
+                moves.add(PackedMove.toChessMove(move));
             }
-
-            board.addPiece(move.getStartPosition(), piece);
-            board.addPiece(move.getEndPosition(), alteredPiece);
         }
+        return moves;
+    }
 
-        if (piece.getPieceType() == ChessPiece.PieceType.KING) {
-
-            TeamColor teamColor = piece.getTeamColor();
-            int teamRow = (teamColor == TeamColor.WHITE) ? 1 : BOARD_SIZE;
-
-            if (canCastleLeft(teamColor)) {
-                validMoves.add(new ChessMove(startPosition, new ChessPosition(teamRow, CASTLE_LEFT_KING_DEST)));
-            }
-            if (canCastleRight(teamColor)) {
-                validMoves.add(new ChessMove(startPosition, new ChessPosition(teamRow, CASTLE_RIGHT_KING_DEST)));
+    /**
+     * Looks up the team's legal moves in the move cache, generating and caching
+     * them on a miss. Repeated queries on an unchanged position, such as one per
+     * highlighted square, then cost a map lookup. Without a cache the moves are
+     * generated every time.
+     */
+    private int[] cachedLegalMoves(TeamColor team) {
+        LegalMoveCache cache = moveCache;
+        long key = positionKey(team);
+        int[] moves = (cache == null) ? null : cache.get(key);
+        if (moves == null) {
+            MoveList generated = scratchMoves();
+            LegalMoveGenerator.generate(board, team, ~0L, generated);
+            moves = generated.toArray();
+            if (cache != null) {
+                cache.put(key, moves);
             }
         }
-
-        return validMoves;
+        return moves;
     }
 
     /**
@@ -118,38 +243,328 @@ public class ChessGame {
     public void makeMove(ChessMove move) throws InvalidMoveException {
 
         ChessPiece startPiece = board.getPiece(move.getStartPosition());
-        ChessPosition startPosition = move.getStartPosition();
-        ChessPosition endPosition = move.getEndPosition();
 
         if (startPiece == null) {
             throw new InvalidMoveException("There is no piece at %s.".formatted(move.getStartPosition()));
         } else if (startPiece.getTeamColor() != teamTurn) {
             throw new InvalidMoveException("Not %s's turn. Invalid move.".formatted(startPiece.getTeamColor()));
-        }  else if (!validMoves(move.getStartPosition()).contains(move)) {
+        }
+
+        int packed = PackedMove.encode(move);
+        MoveList moves = scratchMoves();
+        LegalMoveGenerator.generate(board, teamTurn, Bitboard.bit(PackedMove.from(packed)), moves);
+        int index = moves.indexOf(packed);
+        if (index < 0) {
             throw new InvalidMoveException("Move is invalid.");
         }
 
-        if ((startPiece.getPieceType() == ChessPiece.PieceType.KING) && Math.abs(startPosition.getColumn() - endPosition.getColumn()) > 1) {
-            if (move.getEndPosition().getColumn() < move.getStartPosition().getColumn()) {
-                castleLeft(startPiece.getTeamColor());
-            } else {
-                castleRight(startPiece.getTeamColor());
+        doMove(moves.get(index));
+    }
+
+    /**
+     * Fills the given list with the legal moves of the team whose turn it is,
+     * encoded with {@link PackedMove}. The list is cleared first so callers can
+     * reuse one list per ply.
+     *
+     * @param moves the list to fill
+     */
+    public void legalMoves(MoveList moves) {
+        moves.clear();
+        LegalMoveGenerator.generate(board, teamTurn, ~0L, moves);
+    }
+
+    /**
+     * Plays a move on the board without checking whose turn it is or whether the
+     * move is legal. Castling is recognized as a king moving two columns, and en
+     * passant as a pawn moving diagonally onto an empty square. The move can be
+     * taken back with {@link #undoMove()}.
+     *
+     * @param move chess move to perform
+     */
+    public void doMove(ChessMove move) {
+        doMove(PackedMove.encode(move));
+    }
+
+    /**
+     * Same as {@link #doMove(ChessMove)} for a move encoded with {@link PackedMove}.
+     *
+     * @param move packed chess move to perform
+     */
+    public void doMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        ChessPiece piece = board.getPiece(from);
+        ChessPiece captured = board.getPiece(to);
+        ChessPiece.PieceType promotion = PackedMove.promotion(move);
+        boolean pawn = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        boolean castle = piece.getPieceType() == ChessPiece.PieceType.KING && Math.abs((to & 7) - (from & 7)) > 1;
+        boolean enPassant = pawn && captured == null && (to & 7) != (from & 7);
+
+        long record = from | ((long) to << UNDO_TO_SHIFT);
+        if (promotion != null) {
+            record |= (long) (promotion.ordinal() + 1) << UNDO_PROMOTION_SHIFT;
+        }
+        if (enPassant) {
+            captured = board.getPiece(enPassantVictim(from, to));
+            record |= UNDO_EN_PASSANT;
+            board.addPiece(enPassantVictim(from, to), null);
+        }
+        if (captured != null) {
+            record |= (long) (Bitboard.pieceIndex(captured) + 1) << UNDO_CAPTURED_SHIFT;
+        }
+        record |= (long) board.getState() << UNDO_STATE_SHIFT;
+        record |= (teamTurn == TeamColor.BLACK) ? UNDO_BLACK_TO_MOVE : 0;
+        record |= (long) Math.min(repetitions, 3) << UNDO_REPETITIONS_SHIFT;
+        record |= (long) halfmoveClock << UNDO_CLOCK_SHIFT;
+
+        if (pawn || captured != null) {
+            record |= UNDO_RESET_CLOCK;
+            startNewHistory();
+        } else {
+            rememberPosition();
+        }
+
+        if (castle) {
+            ChessPiece rook = board.getPiece(castleRookSource(from, to));
+            record |= UNDO_CASTLE;
+            board.addPiece(castleRookSource(from, to), null);
+            board.addPiece(castleRookDestination(from, to), rook);
+        }
+
+        ChessPiece landing = piece;
+        if (promotion != null) {
+            landing = ChessPiece.of(piece.getTeamColor(), promotion);
+        }
+        board.addPiece(from, null);
+        board.addPiece(to, landing);
+        board.setCastlingRights(board.getCastlingRights() & ~castlingRightsLost(from) & ~castlingRightsLost(to));
+        board.setEnPassantSquare(pawn && Math.abs(to - from) == 16 && canBeTakenEnPassant(to, piece.getTeamColor())
+                ? (from + to) / 2
+                : Bitboard.NO_SQUARE);
+
+        pushUndo(record);
+        if (teamTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
+        teamTurn = (teamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        repetitions = countRepetitions();
+    }
+
+    /**
+     * Takes back the most recent move made with {@link #doMove(ChessMove)} or
+     * {@link #makeMove(ChessMove)}, restoring captured pieces, castling rights, en
+     * passant and whose turn it is.
+     */
+    public void undoMove() {
+        if (undoCount == 0) {
+            throw new RuntimeException("No move to undo.");
+        }
+        long record = undoStack[--undoCount];
+        int from = (int) (record & 63);
+        int to = (int) ((record >>> UNDO_TO_SHIFT) & 63);
+        int promotion = (int) ((record >>> UNDO_PROMOTION_SHIFT) & 7);
+        int captured = (int) ((record >>> UNDO_CAPTURED_SHIFT) & 15);
+
+        ChessPiece piece = board.getPiece(to);
+        if (promotion != 0) {
+            piece = ChessPiece.of(piece.getTeamColor(), ChessPiece.PieceType.PAWN);
+        }
+        board.addPiece(from, piece);
+        ChessPiece capturedPiece = (captured == 0) ? null : pieceFromIndex(captured - 1);
+        if ((record & UNDO_EN_PASSANT) != 0) {
+            board.addPiece(to, null);
+            board.addPiece(enPassantVictim(from, to), capturedPiece);
+        } else {
+            board.addPiece(to, capturedPiece);
+        }
+
+        if ((record & UNDO_CASTLE) != 0) {
+            ChessPiece rook = board.getPiece(castleRookDestination(from, to));
+            board.addPiece(castleRookDestination(from, to), null);
+            board.addPiece(castleRookSource(from, to), rook);
+        }
+        board.setState((int) (record >>> UNDO_STATE_SHIFT) & UNDO_STATE_MASK);
+
+        if ((record & UNDO_RESET_CLOCK) != 0) {
+            spareHistories.push(positionHistory);
+            positionHistory = earlierHistories.pop();
+        }
+        halfmoveClock = (int) (record >>> UNDO_CLOCK_SHIFT);
+        repetitions = (int) (record >>> UNDO_REPETITIONS_SHIFT) & 3;
+
+        teamTurn = ((record & UNDO_BLACK_TO_MOVE) != 0) ? TeamColor.BLACK : TeamColor.WHITE;
+        if (teamTurn == TeamColor.BLACK) {
+            fullmoveNumber--;
+        }
+    }
+
+    /**
+     * Records the key of the position about to be left by a reversible move.
+     */
+    private void rememberPosition() {
+        if (positionHistory.length > HISTORY_LIMIT) {
+            positionHistory = wrapHistory(positionHistory, halfmoveClock);
+        } else if (halfmoveClock >= positionHistory.length && positionHistory.length < HISTORY_LIMIT) {
+            positionHistory = Arrays.copyOf(positionHistory,
+                    Math.min(Math.max(halfmoveClock * 2, HISTORY_CAPACITY), HISTORY_LIMIT));
+        }
+        positionHistory[halfmoveClock++ % HISTORY_LIMIT] = getPositionKey();
+    }
+
+    /**
+     * Moves the keys of a history stored unwrapped, as games saved before the
+     * limit were, into an array of HISTORY_LIMIT entries.
+     */
+    private static long[] wrapHistory(long[] history, int halfmoves) {
+        long[] wrapped = new long[HISTORY_LIMIT];
+        for (int i = Math.max(0, halfmoves - HISTORY_LIMIT); i < Math.min(halfmoves, history.length); i++) {
+            wrapped[i % HISTORY_LIMIT] = history[i];
+        }
+        return wrapped;
+    }
+
+    /**
+     * Starts an empty history for a capture or pawn move. The old history is kept
+     * for {@link #undoMove()}, and arrays freed by undoing are reused.
+     */
+    private void startNewHistory() {
+        earlierHistories.push(positionHistory);
+        positionHistory = spareHistories.isEmpty() ? new long[HISTORY_CAPACITY] : spareHistories.pop();
+        halfmoveClock = 0;
+    }
+
+    /**
+     * @return how many times the current position occurred before, up to two;
+     * positions with the same side to move are an even number of halfmoves
+     * apart, and getting back to one takes at least four
+     */
+    private int countRepetitions() {
+        if (halfmoveClock < 4) {
+            return 0;
+        }
+        long key = getPositionKey();
+        int count = 0;
+        int oldest = Math.max(0, halfmoveClock - HISTORY_LIMIT);
+        for (int i = halfmoveClock - 4; i >= oldest && count < 2; i -= 2) {
+            if (positionHistory[i % HISTORY_LIMIT] == key) {
+                count++;
             }
-            return;
         }
+        return count;
+    }
+
+    /**
+     * @return the number of halfmoves since the last capture or pawn move
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
 
-        if (move.getPromotionPiece() == null) {
-            board.addPiece(move.getEndPosition(), startPiece);
-            startPiece.setMoved();
+    /**
+     * Sets the halfmove clock when setting up a position part way through a game.
+     * The positions before it are unknown, so they cannot count as repetitions.
+     *
+     * @param halfmoves halfmoves since the last capture or pawn move
+     */
+    public void setHalfmoveClock(int halfmoves) {
+        if (halfmoves < 0) {
+            throw new IllegalArgumentException("Halfmove clock cannot be negative.");
+        }
+        if (halfmoves > positionHistory.length || positionHistory.length > HISTORY_LIMIT) {
+            positionHistory = new long[Math.min(Math.max(halfmoves, HISTORY_CAPACITY), HISTORY_LIMIT)];
         } else {
-            ChessPiece promotedPiece = new ChessPiece(startPiece.getTeamColor(), move.getPromotionPiece());
-            board.addPiece(move.getEndPosition(), promotedPiece);
-            promotedPiece.setMoved();
+            Arrays.fill(positionHistory, 0L);
         }
+        halfmoveClock = halfmoves;
+        repetitions = 0;
+    }
 
-        board.addPiece(move.getStartPosition(), null);
-        teamTurn = (teamTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+    /**
+     * @return the number of the current full move, starting at 1 and going up
+     * after each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
 
+    public void setFullmoveNumber(int fullmoveNumber) {
+        if (fullmoveNumber < 1) {
+            throw new IllegalArgumentException("Fullmove number must be at least 1.");
+        }
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /**
+     * @return True if the current position has occurred at least twice before
+     * with the same side to move, castling rights and en passant
+     */
+    public boolean isThreefoldRepetition() {
+        return repetitions >= 2;
+    }
+
+    /**
+     * @return True if fifty moves by each side have passed without a capture or
+     * pawn move
+     */
+    public boolean isFiftyMoveRule() {
+        return halfmoveClock >= FIFTY_MOVE_HALFMOVES;
+    }
+
+    private void pushUndo(long record) {
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoCount * 2);
+        }
+        undoStack[undoCount++] = record;
+    }
+
+    private static ChessPiece pieceFromIndex(int index) {
+        TeamColor color = TeamColor.values()[index / ChessPiece.PieceType.values().length];
+        ChessPiece.PieceType type = ChessPiece.PieceType.values()[index % ChessPiece.PieceType.values().length];
+        return ChessPiece.of(color, type);
+    }
+
+    /**
+     * @return the castling rights given up when a piece moves from or to the square
+     */
+    private static int castlingRightsLost(int square) {
+        return switch (square) {
+            case 0 -> ChessBoard.WHITE_QUEENSIDE;
+            case 4 -> ChessBoard.WHITE_KINGSIDE | ChessBoard.WHITE_QUEENSIDE;
+            case 7 -> ChessBoard.WHITE_KINGSIDE;
+            case 56 -> ChessBoard.BLACK_QUEENSIDE;
+            case 60 -> ChessBoard.BLACK_KINGSIDE | ChessBoard.BLACK_QUEENSIDE;
+            case 63 -> ChessBoard.BLACK_KINGSIDE;
+            default -> 0;
+        };
+    }
+
+    /**
+     * @return the square of the pawn captured en passant: beside the capturing
+     * pawn's start square, in the column it moves to
+     */
+    private static int enPassantVictim(int from, int to) {
+        return (from & ~7) | (to & 7);
+    }
+
+    /**
+     * En passant is only recorded when an enemy pawn stands beside the pawn that
+     * moved two squares, so positions that differ only by an en passant capture
+     * nobody can make still share a position key.
+     */
+    private boolean canBeTakenEnPassant(int square, TeamColor pawnColor) {
+        TeamColor enemy = (pawnColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        long beside = Bitboard.bit(square);
+        beside = ((beside << 1) & ~Bitboard.FILE_A) | ((beside >>> 1) & ~Bitboard.FILE_H);
+        return (beside & board.getPieces(enemy, ChessPiece.PieceType.PAWN)) != 0;
+    }
+
+    private static int castleRookSource(int kingFrom, int kingTo) {
+        int rowStart = kingFrom & ~7;
+        return (kingTo > kingFrom) ? rowStart + CASTLE_RIGHT_ROOK_COL - 1 : rowStart + CASTLE_LEFT_ROOK_COL - 1;
+    }
+
+    private static int castleRookDestination(int kingFrom, int kingTo) {
+        return (kingFrom + kingTo) / 2;
     }
 
     /**
@@ -159,22 +574,13 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-
         TeamColor opponentColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
 
-        List<ChessPosition> kingPositionArray = getPiecePositions(ChessPiece.PieceType.KING, teamColor);
-        ChessPosition kingPosition = kingPositionArray.get(0);
-
-        Collection<ChessMove> attacks = teamAttacks(opponentColor);
-
-        for (ChessMove attack : attacks) {
-            if (attack.getEndPosition().equals(kingPosition)) {
-                return true;
-            }
+        int kingSquare = board.getKingSquare(teamColor);
+        if (kingSquare == Bitboard.NO_SQUARE) {
+            return false;
         }
-
-        return false;
-
+        return board.isSquareAttacked(kingSquare, opponentColor);
     }
 
     /**
@@ -184,7 +590,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        return isInCheck(teamColor) && (validTeamMoves(teamColor).isEmpty());
+        return isInCheck(teamColor) && !hasValidMoves(teamColor);
     }
 
     /**
@@ -195,16 +601,69 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        return !isInCheck(teamColor) && (validTeamMoves(teamColor).isEmpty());
+        return !isInCheck(teamColor) && !hasValidMoves(teamColor);
+    }
+
+    /**
+     * Determines if neither team has the pieces to checkmate with any sequence of
+     * moves: only kings and at most one knight or bishop are left, or every
+     * remaining piece besides the kings is a bishop on the same color of square.
+     *
+     * @return True if the game can no longer end in checkmate
+     */
+    public boolean isInsufficientMaterial() {
+        long signature = board.getMaterialSignature();
+        if ((signature & MATING_MATERIAL) != 0) {
+            return false;
+        }
+        int knights = board.getPieceCount(TeamColor.WHITE, ChessPiece.PieceType.KNIGHT)
+                + board.getPieceCount(TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        int bishops = board.getPieceCount(TeamColor.WHITE, ChessPiece.PieceType.BISHOP)
+                + board.getPieceCount(TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        if (knights + bishops <= 1) {
+            return true;
+        }
+        if (knights > 0) {
+            return false;
+        }
+        long bishopSquares = board.getPieces(TeamColor.WHITE, ChessPiece.PieceType.BISHOP)
+                | board.getPieces(TeamColor.BLACK, ChessPiece.PieceType.BISHOP);
+        return (bishopSquares & Bitboard.LIGHT_SQUARES) == 0 || (bishopSquares & Bitboard.DARK_SQUARES) == 0;
+    }
+
+    private static long signatureMask(ChessPiece.PieceType type) {
+        return ChessBoard.signatureUnit(Bitboard.pieceIndex(TeamColor.WHITE, type)) * 15
+                | ChessBoard.signatureUnit(Bitboard.pieceIndex(TeamColor.BLACK, type)) * 15;
+    }
+
+    private boolean hasValidMoves(TeamColor teamColor) {
+        MoveList moves = scratchMoves();
+        LegalMoveGenerator.generate(board, teamColor, ~0L, moves);
+        return !moves.isEmpty();
+    }
+
+    private MoveList scratchMoves() {
+        if (scratchMoves == null) {
+            scratchMoves = new MoveList();
+        }
+        scratchMoves.clear();
+        return scratchMoves;
     }
 
     /**
-     * Sets this game's chessboard with a given board
+     * Sets this game's chessboard with a given board. The move counters and the
+     * positions seen so far start over from the new board, and earlier moves can
+     * no longer be undone.
      *
      * @param board the new board to use
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        halfmoveClock = 0;
+        repetitions = 0;
+        fullmoveNumber = 1;
+        undoCount = 0;
+        earlierHistories.clear();
     }
 
     /**
@@ -219,21 +678,11 @@ public class ChessGame {
     public List<ChessPosition> getPiecePositions(ChessPiece.PieceType type, TeamColor color) {
         List<ChessPosition> positionList = new ArrayList<>();
 
-        for (int i = 1; i <= 8; i++) {
-            for (int j = 1; j <= 8; j++) {
-
-                ChessPosition position = new ChessPosition(i, j);
-                ChessPiece piece = board.getPiece(position);
-
-                if (piece == null) {
-                    continue;
-                }
-
-                if (piece.getPieceType() == type && piece.getTeamColor() == color) {
-                    positionList.add(position);
-                }
-
-            }
+        long pieces = board.getPieces(color, type);
+        while (pieces != 0) {
+            int square = Bitboard.firstSquare(pieces);
+            positionList.add(ChessPosition.ofSquare(square));
+            pieces &= pieces - 1;
         }
 
         return positionList;
@@ -242,96 +691,42 @@ public class ChessGame {
     public Collection<ChessMove> teamAttacks(TeamColor team) {
         List<ChessMove> moves = new ArrayList<>();
 
-        for (ChessBoard.PieceAtPosition piece : board) {
-            if (piece.getPiece() != null && piece.getPiece().getTeamColor() == team) {
-                moves.addAll(piece.getPiece().pieceMoves(board, piece.getPosition()));
-            }
+        for (ChessBoard.PieceAtPosition piece : board.pieces(team)) {
+            moves.addAll(piece.getPiece().pieceMoves(board, piece.getPosition()));
         }
 
         return moves;
     }
 
     public Collection<ChessMove> validTeamMoves(TeamColor team) {
-        List<ChessMove> moves = new ArrayList<>();
-
-        for (ChessPosition position : ChessPosition.positions()) {
-            if (board.getPiece(position) != null && board.getPiece(position).getTeamColor() == team) {
-                moves.addAll(validMoves(position));
-            }
+        int[] packed = cachedLegalMoves(team);
+        List<ChessMove> moves = new ArrayList<>(packed.length);
+        for (int move : packed) {
+            moves.add(PackedMove.toChessMove(move));
         }
-
         return moves;
     }
 
-    private boolean canCastle(TeamColor teamColor, int rookCol, int kingStep) {
-        int teamRow = (teamColor == TeamColor.WHITE) ? 1 : BOARD_SIZE;
-        ChessPosition rookPosition = new ChessPosition(teamRow, rookCol);
-        ChessPosition kingPosition = new ChessPosition(teamRow, KING_COL);
-        TeamColor opponentColor = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
-
-        ChessPiece rookPiece = board.getPiece(rookPosition);
-        ChessPiece kingPiece = board.getPiece(kingPosition);
-
-        Collection<ChessMove> opponentAttacks = teamAttacks(opponentColor);
-        List<ChessPosition> attackedSpots = new ArrayList<>();
-        for (ChessMove move : opponentAttacks) {
-            attackedSpots.add(move.getEndPosition());
-        }
-
-        if (rookPiece == null || rookPiece.getPieceType() != ChessPiece.PieceType.ROOK) {
-            return false;
-        }
-        if (kingPiece == null || kingPiece.getPieceType() != ChessPiece.PieceType.KING) {
-            return false;
-        }
-        if (kingPiece.hasMoved() || rookPiece.hasMoved() || isInCheck(teamColor)) {
-            return false;
-        }
-
-        for (int column = KING_COL + kingStep; column != rookCol; column += kingStep) {
-            if (!board.checkClear(new ChessPosition(teamRow, column))) {
-                return false;
-            }
-        }
-
-        ChessPosition oneOver = new ChessPosition(teamRow, KING_COL + kingStep);
-        ChessPosition twoOver = new ChessPosition(teamRow, KING_COL + kingStep * 2);
-        return !attackedSpots.contains(oneOver) && !attackedSpots.contains(twoOver);
-    }
-
     public boolean canCastleLeft(TeamColor teamColor) {
-        return canCastle(teamColor, CASTLE_LEFT_ROOK_COL, -1);
+        return LegalMoveGenerator.canCastle(board, teamColor, false);
     }
 
     public boolean canCastleRight(TeamColor teamColor) {
-        return canCastle(teamColor, CASTLE_RIGHT_ROOK_COL, 1);
+        return LegalMoveGenerator.canCastle(board, teamColor, true);
     }
 
-    private void performCastle(TeamColor teamColor, int rookSrcCol, int kingDestCol, int rookDestCol) {
+    private void performCastle(TeamColor teamColor, int kingDestCol) {
         int teamRow = (teamColor == TeamColor.WHITE) ? 1 : BOARD_SIZE;
-        ChessPosition rookPosition = new ChessPosition(teamRow, rookSrcCol);
-        ChessPosition kingPosition = new ChessPosition(teamRow, KING_COL);
-        ChessPiece rookPiece = board.getPiece(rookPosition);
-        ChessPiece kingPiece = board.getPiece(kingPosition);
-
-        board.addPiece(kingPosition, null);
-        board.addPiece(new ChessPosition(teamRow, kingDestCol), kingPiece);
-
-        board.addPiece(rookPosition, null);
-        board.addPiece(new ChessPosition(teamRow, rookDestCol), rookPiece);
-
-        kingPiece.setMoved();
-        rookPiece.setMoved();
-
+        doMove(ChessMove.of(ChessPosition.of(teamRow, KING_COL), ChessPosition.of(teamRow, kingDestCol), null));
         teamTurn = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
     }
 
     public void castleRight(TeamColor teamColor) {
-        performCastle(teamColor, CASTLE_RIGHT_ROOK_COL, CASTLE_RIGHT_KING_DEST, 6);
+        performCastle(teamColor, CASTLE_RIGHT_KING_DEST);
     }
 
     public void castleLeft(TeamColor teamColor) {
-        performCastle(teamColor, CASTLE_LEFT_ROOK_COL, CASTLE_LEFT_KING_DEST, 4);
+        performCastle(teamColor, CASTLE_LEFT_KING_DEST);
     }
 
     @Override
@@ -345,6 +740,6 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(teamTurn, board);
+        return Long.hashCode(board.getPlacementKey() ^ Zobrist.sideToMove(teamTurn));
     }
 }
@@ -10,6 +10,31 @@ import java.util.Objects;
  */
 public class ChessMove {
 
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    // Every on-board from/to pair, plus promotions for pawn steps onto the last rows.
+    private static final ChessMove[] MOVES = new ChessMove[64 * 64];
+    private static final ChessMove[][] PROMOTIONS = new ChessMove[64 * 64][];
+
+    static {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                ChessPosition start = ChessPosition.ofSquare(from);
+                ChessPosition end = ChessPosition.ofSquare(to);
+                MOVES[from * 64 + to] = new ChessMove(start, end);
+
+                boolean lastRow = (start.getRow() == 7 && end.getRow() == 8) || (start.getRow() == 2 && end.getRow() == 1);
+                if (lastRow && Math.abs(start.getColumn() - end.getColumn()) <= 1) {
+                    ChessMove[] promotions = new ChessMove[PIECE_TYPES.length];
+                    for (ChessPiece.PieceType type : PIECE_TYPES) {
+                        promotions[type.ordinal()] = new ChessMove(start, end, type);
+                    }
+                    PROMOTIONS[from * 64 + to] = promotions;
+                }
+            }
+        }
+    }
+
     private final ChessPosition startPosition;
     private final ChessPosition endPosition;
     private final ChessPiece.PieceType promotionPiece;
@@ -27,6 +52,36 @@ public class ChessMove {
         this.promotionPiece = promotionPiece;
     }
 
+    /**
+     * Gets the shared instance of a move between two squares (see {@link Bitboard}).
+     * Moves are immutable, so move generation hands these out instead of
+     * allocating new ones.
+     *
+     * @param promotionPiece the promotion type, or null if the move is not a promotion
+     */
+    public static ChessMove of(int fromSquare, int toSquare, ChessPiece.PieceType promotionPiece) {
+        if (promotionPiece == null) {
+            return MOVES[fromSquare * 64 + toSquare];
+        }
+        ChessMove[] promotions = PROMOTIONS[fromSquare * 64 + toSquare];
+        if (promotions == null) {
+            return new ChessMove(ChessPosition.ofSquare(fromSquare), ChessPosition.ofSquare(toSquare), promotionPiece);
+        }
+        return promotions[promotionPiece.ordinal()];
+    }
+
+    /**
+     * @return the shared instance of the move when both positions are on the board,
+     * otherwise a new move
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition,
+                               ChessPiece.PieceType promotionPiece) {
+        if (startPosition.outOfBounds() || endPosition.outOfBounds()) {
+            return new ChessMove(startPosition, endPosition, promotionPiece);
+        }
+        return of(Bitboard.square(startPosition), Bitboard.square(endPosition), promotionPiece);
+    }
+
     /**
      * @return ChessPosition of starting location
      */
@@ -64,7 +119,8 @@ public class ChessMove {
 
     @Override
     public int hashCode() {
-        return Objects.hash(getStartPosition(), getEndPosition(), getPromotionPiece());
+        int promotion = (promotionPiece == null) ? 0 : promotionPiece.ordinal() + 1;
+        return (Objects.hashCode(startPosition) * 31 + Objects.hashCode(endPosition)) * 31 + promotion;
     }
 
     @Override
@@ -14,20 +14,37 @@ import static java.util.Map.entry;
  */
 public class ChessPiece {
 
+    private static final ChessPiece[] PIECES = new ChessPiece[12];
+
+    static {
+        for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+            for (PieceType type : PieceType.values()) {
+                PIECES[Bitboard.pieceIndex(color, type)] = new ChessPiece(color, type);
+            }
+        }
+    }
+
     private final PieceType type;
     private final ChessGame.TeamColor pieceColor;
-    private boolean moved;
 
     public ChessPiece(ChessGame.TeamColor pieceColor, ChessPiece.PieceType type) {
         this.type = type;
         this.pieceColor = pieceColor;
-        moved = false;
     }
 
     public ChessPiece(ChessPiece oldPiece) {
         type = oldPiece.getPieceType();
         pieceColor = oldPiece.getTeamColor();
-        moved = oldPiece.hasMoved();
+    }
+
+    /**
+     * Pieces are immutable, so one shared instance of each of the twelve kinds
+     * can stand on any number of boards.
+     *
+     * @return the shared piece of the given color and type
+     */
+    public static ChessPiece of(ChessGame.TeamColor pieceColor, PieceType type) {
+        return PIECES[Bitboard.pieceIndex(pieceColor, type)];
     }
 
     /**
@@ -57,14 +74,6 @@ public class ChessPiece {
         return type;
     }
 
-    public boolean hasMoved() {
-        return moved;
-    }
-
-    public void setMoved() {
-        moved = true;
-    }
-
     /**
      * Calculates all the positions a chess piece can move to
      * Does not take into account moves that are illegal due to leaving the king in
@@ -9,14 +9,43 @@ import java.util.*;
  * signature of the existing methods.
  */
 public class ChessPosition {
-    private int row;
-    private int col;
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition(Bitboard.row(square), Bitboard.column(square));
+        }
+    }
+
+    private final int row;
+    private final int col;
 
     public ChessPosition(int row, int col) {
         this.row = row;
         this.col = col;
     }
 
+    /**
+     * Gets the shared instance for a position. Positions are immutable, so move
+     * generation hands these out instead of allocating new ones.
+     *
+     * @return the cached position for an on-board row and column, or a new
+     * position if it is off the board
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[Bitboard.square(row, col)];
+    }
+
+    /**
+     * @return the cached position for a square index, 0 to 63 (see {@link Bitboard})
+     */
+    public static ChessPosition ofSquare(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -38,27 +67,7 @@ public class ChessPosition {
     }
 
     public static Iterable<ChessPosition> positions() {
-
-        return () -> new Iterator<ChessPosition>() {
-            private int row = 1;
-            private int col = 1;
-
-            @Override
-            public boolean hasNext() {
-                return row <= 8;
-            }
-
-            @Override
-            public ChessPosition next() {
-                if (!hasNext()) {
-                    throw new NoSuchElementException();
-                }
-                ChessPosition position = new ChessPosition(row, col);
-                col++;
-                if (col == 9) {col = 1; row++;}
-                return position;
-            }
-        };
+        return () -> Arrays.asList(SQUARES).iterator();
     }
 
     @Override
@@ -72,7 +81,7 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return 31 * row + col;
     }
 
     @Override
@@ -0,0 +1,80 @@
+package chess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache of legal move lists keyed by position key. Once
+ * it holds more than its capacity, the least recently used position is evicted.
+ * <p>
+ * Moves are stored packed (see {@link chess.piecemoves.PackedMove}) so an entry
+ * costs one small int array. The key must identify everything the legal moves
+ * depend on: placement, the team moving, castling rights and en passant.
+ */
+public class LegalMoveCache {
+
+    private final Map<Long, int[]> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param capacity the largest number of positions kept
+     */
+    public LegalMoveCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be at least 1.");
+        }
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, int[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @return the cached moves for the position, or null if it is not cached;
+     * callers must not modify the returned array
+     */
+    public int[] get(long key) {
+        int[] moves;
+        synchronized (entries) {
+            moves = entries.get(key);
+        }
+        if (moves == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return moves;
+    }
+
+    public void put(long key, int[] moves) {
+        synchronized (entries) {
+            entries.put(key, moves);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+        hits.reset();
+        misses.reset();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
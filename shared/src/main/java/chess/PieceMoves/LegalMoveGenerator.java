@@ -0,0 +1,281 @@
+package chess.piecemoves;
+
+import chess.Bitboard;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+
+import java.util.List;
+
+/**
+ * Generates only legal moves for one team. Checking pieces and pinned pieces
+ * are found once per call; after that each candidate move is accepted or
+ * rejected with a couple of mask tests instead of being played out and
+ * followed by a check test.
+ */
+public final class LegalMoveGenerator {
+
+    private static final int KING_COL = 5;
+
+    private LegalMoveGenerator() {
+    }
+
+    /**
+     * @return every legal move for the given team
+     */
+    public static List<ChessMove> generate(ChessBoard board, ChessGame.TeamColor team) {
+        return generate(board, team, ~0L);
+    }
+
+    /**
+     * @param fromSquares only pieces standing on these squares are considered
+     * @return the legal moves for the given team's pieces on the given squares
+     */
+    public static List<ChessMove> generate(ChessBoard board, ChessGame.TeamColor team, long fromSquares) {
+        MoveList moves = new MoveList();
+        generate(board, team, fromSquares, moves);
+        return moves.toChessMoves();
+    }
+
+    /**
+     * Appends the legal moves for the given team's pieces on the given squares to
+     * a caller-owned list, encoded with {@link PackedMove}.
+     *
+     * @param fromSquares only pieces standing on these squares are considered
+     * @param moves       the list to append to; it is not cleared first
+     */
+    public static void generate(ChessBoard board, ChessGame.TeamColor team, long fromSquares, MoveList moves) {
+        ChessGame.TeamColor enemy = opponent(team);
+        long own = board.getOccupied(team);
+        int kingSquare = board.getKingSquare(team);
+
+        // Without a king nothing can be pinned or checked, so every move stands.
+        if (kingSquare == Bitboard.NO_SQUARE) {
+            addPieceMoves(board, team, own & fromSquares, ~own, 0L, kingSquare, moves);
+            addEnPassant(board, team, fromSquares, kingSquare, moves);
+            return;
+        }
+
+        long checkers = board.attackersOf(kingSquare, enemy, board.getOccupied());
+        if (Bitboard.contains(fromSquares, kingSquare)) {
+            addKingMoves(board, team, kingSquare, moves);
+            if (checkers == 0) {
+                addCastling(board, team, kingSquare, moves);
+            }
+        }
+
+        // Against a double check only the king can move.
+        if (Bitboard.count(checkers) > 1) {
+            return;
+        }
+
+        long targets = ~own;
+        if (checkers != 0) {
+            int checker = Bitboard.firstSquare(checkers);
+            targets = checkers | SlidingAttacks.between(kingSquare, checker);
+        }
+        long movers = own & ~Bitboard.bit(kingSquare) & fromSquares;
+        addPieceMoves(board, team, movers, targets, pinnedPieces(board, team, kingSquare), kingSquare, moves);
+        addEnPassant(board, team, fromSquares, kingSquare, moves);
+    }
+
+    /**
+     * Determines whether the team may castle towards one side: the team still has
+     * that castling right (see {@link ChessBoard#getCastlingRights()}), the squares
+     * between king and rook are empty, and the king is not in check and does not
+     * pass through or land on an attacked square.
+     */
+    public static boolean canCastle(ChessBoard board, ChessGame.TeamColor team, boolean kingside) {
+        boolean white = team == ChessGame.TeamColor.WHITE;
+        int right = white
+                ? (kingside ? ChessBoard.WHITE_KINGSIDE : ChessBoard.WHITE_QUEENSIDE)
+                : (kingside ? ChessBoard.BLACK_KINGSIDE : ChessBoard.BLACK_QUEENSIDE);
+        if ((board.getCastlingRights() & right) == 0) {
+            return false;
+        }
+
+        int row = white ? 1 : 8;
+        int kingSquare = Bitboard.square(row, KING_COL);
+        int rookSquare = Bitboard.square(row, kingside ? 8 : 1);
+        if ((SlidingAttacks.between(kingSquare, rookSquare) & board.getOccupied()) != 0) {
+            return false;
+        }
+
+        ChessGame.TeamColor enemy = opponent(team);
+        int step = kingside ? 1 : -1;
+        return !board.isSquareAttacked(kingSquare, enemy)
+                && !board.isSquareAttacked(kingSquare + step, enemy)
+                && !board.isSquareAttacked(kingSquare + 2 * step, enemy);
+    }
+
+    private static long pinnedPieces(ChessBoard board, ChessGame.TeamColor team, int kingSquare) {
+        ChessGame.TeamColor enemy = opponent(team);
+        long enemies = board.getOccupied(enemy);
+        long queens = board.getPieces(enemy, ChessPiece.PieceType.QUEEN);
+
+        // Enemy sliders that would hit the king if none of our pieces were in the way.
+        long snipers = (SlidingAttacks.rookAttacks(kingSquare, enemies)
+                & (board.getPieces(enemy, ChessPiece.PieceType.ROOK) | queens))
+                | (SlidingAttacks.bishopAttacks(kingSquare, enemies)
+                & (board.getPieces(enemy, ChessPiece.PieceType.BISHOP) | queens));
+
+        long pinned = 0;
+        long occupied = board.getOccupied();
+        while (snipers != 0) {
+            int sniper = Bitboard.firstSquare(snipers);
+            long blockers = SlidingAttacks.between(kingSquare, sniper) & occupied;
+            if (Bitboard.count(blockers) == 1) {
+                pinned |= blockers & board.getOccupied(team);
+            }
+            snipers &= snipers - 1;
+        }
+        return pinned;
+    }
+
+    private static void addKingMoves(ChessBoard board, ChessGame.TeamColor team, int kingSquare, MoveList moves) {
+        ChessGame.TeamColor enemy = opponent(team);
+        // The king must not be able to hide behind itself along a checking ray.
+        long occupied = board.getOccupied() & ~Bitboard.bit(kingSquare);
+        long enemies = board.getOccupied(enemy);
+        long targets = StepAttacks.kingAttacks(kingSquare) & ~board.getOccupied(team);
+
+        while (targets != 0) {
+            int to = Bitboard.firstSquare(targets);
+            if (board.attackersOf(to, enemy, occupied) == 0) {
+                moves.add(PackedMove.encode(kingSquare, to, null, captureFlag(enemies, to)));
+            }
+            targets &= targets - 1;
+        }
+    }
+
+    private static void addCastling(ChessBoard board, ChessGame.TeamColor team, int kingSquare, MoveList moves) {
+        if (canCastle(board, team, true)) {
+            moves.add(PackedMove.encode(kingSquare, kingSquare + 2, null, PackedMove.CASTLE));
+        }
+        if (canCastle(board, team, false)) {
+            moves.add(PackedMove.encode(kingSquare, kingSquare - 2, null, PackedMove.CASTLE));
+        }
+    }
+
+    private static void addPieceMoves(ChessBoard board, ChessGame.TeamColor team, long movers, long targets,
+                                      long pinned, int kingSquare, MoveList moves) {
+        long occupied = board.getOccupied();
+        long own = board.getOccupied(team);
+        long enemies = board.getOccupied(opponent(team));
+
+        while (movers != 0) {
+            int from = Bitboard.firstSquare(movers);
+            movers &= movers - 1;
+
+            long allowed = targets;
+            if (Bitboard.contains(pinned, from)) {
+                allowed &= SlidingAttacks.line(kingSquare, from);
+            }
+
+            ChessPiece.PieceType type = board.getPiece(from).getPieceType();
+            long attacks = switch (type) {
+                case PAWN -> {
+                    addPawnMoves(board, team, from, allowed, moves);
+                    yield 0L;
+                }
+                case KNIGHT -> StepAttacks.knightAttacks(from);
+                case BISHOP -> SlidingAttacks.bishopAttacks(from, occupied);
+                case ROOK -> SlidingAttacks.rookAttacks(from, occupied);
+                case QUEEN -> SlidingAttacks.queenAttacks(from, occupied);
+                case KING -> StepAttacks.kingAttacks(from);
+            };
+
+            long destinations = attacks & ~own & allowed;
+            while (destinations != 0) {
+                int to = Bitboard.firstSquare(destinations);
+                moves.add(PackedMove.encode(from, to, null, captureFlag(enemies, to)));
+                destinations &= destinations - 1;
+            }
+        }
+    }
+
+    private static void addPawnMoves(ChessBoard board, ChessGame.TeamColor team, int from, long allowed,
+                                     MoveList moves) {
+        long empty = ~board.getOccupied();
+        boolean white = team == ChessGame.TeamColor.WHITE;
+        int forward = white ? 8 : -8;
+        int startRow = white ? 2 : 7;
+        int lastRow = white ? 8 : 1;
+        if (Bitboard.row(from) == lastRow) {
+            return;
+        }
+
+        int oneStep = from + forward;
+        if (Bitboard.contains(empty, oneStep)) {
+            addPawnMove(from, oneStep, 0, allowed, moves);
+            int twoStep = oneStep + forward;
+            if (Bitboard.row(from) == startRow && Bitboard.contains(empty, twoStep)) {
+                addPawnMove(from, twoStep, PackedMove.DOUBLE_PUSH, allowed, moves);
+            }
+        }
+
+        long captures = StepAttacks.pawnAttacks(team, from) & board.getOccupied(opponent(team));
+        while (captures != 0) {
+            addPawnMove(from, Bitboard.firstSquare(captures), PackedMove.CAPTURE, allowed, moves);
+            captures &= captures - 1;
+        }
+    }
+
+    private static void addPawnMove(int from, int to, int flags, long allowed, MoveList moves) {
+        if (!Bitboard.contains(allowed, to)) {
+            return;
+        }
+        int row = Bitboard.row(to);
+        if (row == 1 || row == 8) {
+            moves.add(PackedMove.encode(from, to, ChessPiece.PieceType.QUEEN, flags));
+            moves.add(PackedMove.encode(from, to, ChessPiece.PieceType.KNIGHT, flags));
+            moves.add(PackedMove.encode(from, to, ChessPiece.PieceType.ROOK, flags));
+            moves.add(PackedMove.encode(from, to, ChessPiece.PieceType.BISHOP, flags));
+        } else {
+            moves.add(PackedMove.encode(from, to, null, flags));
+        }
+    }
+
+    /*
+     * En passant removes two pieces from one row at once, which the pin and check
+     * masks do not describe, so each capture is checked by asking whether the
+     * king would be attacked on the board as it would look afterwards.
+     */
+    private static void addEnPassant(ChessBoard board, ChessGame.TeamColor team, long fromSquares, int kingSquare,
+                                     MoveList moves) {
+        int target = board.getEnPassantSquare();
+        boolean white = team == ChessGame.TeamColor.WHITE;
+        if (target == Bitboard.NO_SQUARE || Bitboard.row(target) != (white ? 6 : 3)) {
+            return;
+        }
+        ChessGame.TeamColor enemy = opponent(team);
+        int victim = target + (white ? -8 : 8);
+        if (!Bitboard.contains(board.getPieces(enemy, ChessPiece.PieceType.PAWN), victim)) {
+            return;
+        }
+
+        long capturers = StepAttacks.pawnAttacks(enemy, target)
+                & board.getPieces(team, ChessPiece.PieceType.PAWN) & fromSquares;
+        while (capturers != 0) {
+            int from = Bitboard.firstSquare(capturers);
+            capturers &= capturers - 1;
+            if (kingSquare != Bitboard.NO_SQUARE) {
+                long occupied = (board.getOccupied() & ~Bitboard.bit(from) & ~Bitboard.bit(victim))
+                        | Bitboard.bit(target);
+                if ((board.attackersOf(kingSquare, enemy, occupied) & ~Bitboard.bit(victim)) != 0) {
+                    continue;
+                }
+            }
+            moves.add(PackedMove.encode(from, target, null, PackedMove.CAPTURE | PackedMove.EN_PASSANT));
+        }
+    }
+
+    private static int captureFlag(long enemies, int to) {
+        return Bitboard.contains(enemies, to) ? PackedMove.CAPTURE : 0;
+    }
+
+    private static ChessGame.TeamColor opponent(ChessGame.TeamColor team) {
+        return (team == ChessGame.TeamColor.WHITE) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+    }
+}
@@ -1,5 +1,6 @@
 package chess.piecemoves;
 
+import chess.Bitboard;
 import chess.ChessBoard;
 import chess.ChessMove;
 import chess.ChessPiece;
@@ -13,56 +14,21 @@ public interface MoveCalculator {
 
     public Collection<ChessMove> getMoves (ChessBoard board, ChessPosition position);
 
-    static Collection<ChessMove> getLongMoves(ChessBoard board, ChessPosition position, int[] rowDeltas, int[] colDeltas) {
+    static Collection<ChessMove> getMovesTo(ChessBoard board, ChessPosition position, long attacks) {
         List<ChessMove> moves = new ArrayList<>();
         ChessPiece piece = board.getPiece(position);
+        long targets = attacks & ~board.getOccupied(piece.getTeamColor());
+        int from = Bitboard.square(position);
 
-        for (int t = 0; t < rowDeltas.length; t++) {
-            for (int i = 1; i <= 8; i++) {
-                int rowIncrease = i * rowDeltas[t];
-                int colIncrease = i * colDeltas[t];
-                ChessPosition newPosition = new ChessPosition(position.getRow() + rowIncrease, position.getColumn() + colIncrease);
-
-                if (newPosition.outOfBounds()) {
-                    break;
-                }
-
-                ChessPiece occupier = board.getPiece(newPosition);
-
-                if (occupier != null) {
-                    if (occupier.getTeamColor() != piece.getTeamColor()) {
-                        moves.add(new ChessMove(position, newPosition));
-                    }
-                    break;
-                }
-                moves.add(new ChessMove(position, newPosition));
-            }
+        while (targets != 0) {
+            moves.add(ChessMove.of(from, Bitboard.firstSquare(targets), null));
+            targets &= targets - 1;
         }
         return moves;
     }
 
-    static Collection<ChessMove> getSingleMoves(ChessBoard board, ChessPosition position, int[] rowDeltas, int[] colDeltas) {
-        List<ChessMove> moves = new ArrayList<>();
-        ChessPiece piece = board.getPiece(position);
-
-        for (int i = 0; i < rowDeltas.length; i++) {
-            ChessPosition newPosition = new ChessPosition(position.getRow() + rowDeltas[i], position.getColumn() + colDeltas[i]);
-
-            if (newPosition.outOfBounds()) {
-                continue;
-            }
-
-            ChessPiece occupier = board.getPiece(newPosition);
-            if (occupier != null) {
-                if (occupier.getTeamColor() != piece.getTeamColor()) {
-                    moves.add(new ChessMove(position, newPosition));
-                }
-                continue;
-            }
-
-            moves.add(new ChessMove(position, newPosition));
-        }
-        return moves;
+    static boolean inBounds(int row, int col) {
+        return row >= 1 && row <= 8 && col >= 1 && col <= 8;
     }
 
 }
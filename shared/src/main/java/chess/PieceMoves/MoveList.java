@@ -0,0 +1,85 @@
+package chess.piecemoves;
+
+import chess.ChessMove;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable buffer of moves encoded with {@link PackedMove}. Generators append
+ * into a list the caller owns, so a search can clear and reuse one list per ply
+ * instead of allocating collections for every position.
+ */
+public class MoveList {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[Math.max(capacity, 1)];
+        size = 0;
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index %d out of bounds for %d moves.".formatted(index, size));
+        }
+        return moves[index];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the index of the first move with the same squares and promotion, or -1
+     */
+    public int indexOf(int move) {
+        for (int i = 0; i < size; i++) {
+            if (PackedMove.sameMove(moves[i], move)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return a copy of the moves, trimmed to size
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    /**
+     * @return the moves as {@link ChessMove} objects, for the collection based API
+     */
+    public List<ChessMove> toChessMoves() {
+        List<ChessMove> chessMoves = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            chessMoves.add(PackedMove.toChessMove(moves[i]));
+        }
+        return chessMoves;
+    }
+}
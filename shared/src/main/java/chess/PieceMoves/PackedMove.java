@@ -0,0 +1,73 @@
+package chess.piecemoves;
+
+import chess.Bitboard;
+import chess.ChessMove;
+import chess.ChessPiece;
+
+/**
+ * Encodes a move in a single int so move lists can be kept in primitive arrays.
+ * <p>
+ * Bits 0-5 hold the from square and bits 6-11 the to square (see {@link Bitboard}),
+ * bits 12-14 the promotion type as its ordinal plus one (zero for none), and the
+ * bits above that are flags describing the kind of move.
+ */
+public final class PackedMove {
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int DOUBLE_PUSH = 1 << 16;
+    public static final int CASTLE = 1 << 17;
+    public static final int EN_PASSANT = 1 << 18;
+
+    private static final int TO_SHIFT = 6;
+    private static final int PROMOTION_SHIFT = 12;
+    private static final int SQUARES_AND_PROMOTION = (1 << 15) - 1;
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+    }
+
+    public static int encode(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promotionBits = (promotion == null) ? 0 : promotion.ordinal() + 1;
+        return from | (to << TO_SHIFT) | (promotionBits << PROMOTION_SHIFT) | flags;
+    }
+
+    /**
+     * Encodes a move without flags; {@link #sameMove(int, int)} still matches it
+     * against a generated move with flags.
+     */
+    public static int encode(ChessMove move) {
+        return encode(Bitboard.square(move.getStartPosition()), Bitboard.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static int from(int move) {
+        return move & 63;
+    }
+
+    public static int to(int move) {
+        return (move >>> TO_SHIFT) & 63;
+    }
+
+    /**
+     * @return the promotion type, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int promotionBits = (move >>> PROMOTION_SHIFT) & 7;
+        return (promotionBits == 0) ? null : PIECE_TYPES[promotionBits - 1];
+    }
+
+    public static boolean hasFlag(int move, int flag) {
+        return (move & flag) != 0;
+    }
+
+    /**
+     * @return True if both encode the same squares and promotion, ignoring flags
+     */
+    public static boolean sameMove(int first, int second) {
+        return (first & SQUARES_AND_PROMOTION) == (second & SQUARES_AND_PROMOTION);
+    }
+
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(from(move), to(move), promotion(move));
+    }
+}
@@ -19,51 +19,45 @@ public class PawnMove implements MoveCalculator {
 
         int direction = (piece.getTeamColor() == ChessGame.TeamColor.WHITE) ? 1 : -1;
         int startRow = (piece.getTeamColor() == ChessGame.TeamColor.WHITE) ? 2 : 7;
+        ChessGame.TeamColor enemyColor = (piece.getTeamColor() == ChessGame.TeamColor.WHITE)
+                ? ChessGame.TeamColor.BLACK
+                : ChessGame.TeamColor.WHITE;
 
-        ChessPosition forwardOne = new ChessPosition(position.getRow() + direction, position.getColumn());
-        ChessPosition forwardTwo = new ChessPosition(position.getRow() + (2 * direction), position.getColumn());
-        ChessPosition right = new ChessPosition(position.getRow() + direction, position.getColumn() + 1);
-        ChessPosition left = new ChessPosition(position.getRow() + direction, position.getColumn() - 1);
+        long occupied = board.getOccupied();
+        long enemies = board.getOccupied(enemyColor);
+        int row = position.getRow() + direction;
+        int col = position.getColumn();
 
-        if (addIfEmpty(board, moves, position, forwardOne) && (position.getRow() == startRow)) {
-            addIfEmpty(board, moves, position, forwardTwo);
+        if (addIfIn(moves, position, row, col, ~occupied) && (position.getRow() == startRow)) {
+            addIfIn(moves, position, row + direction, col, ~occupied);
         }
-        addIfEnemy(board, moves, position, right);
-        addIfEnemy(board, moves, position, left);
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant != Bitboard.NO_SQUARE && Bitboard.row(enPassant) == startRow + 4 * direction) {
+            enemies |= Bitboard.bit(enPassant);
+        }
+        addIfIn(moves, position, row, col + 1, enemies);
+        addIfIn(moves, position, row, col - 1, enemies);
 
         return moves;
     }
 
-    private boolean addIfEmpty(ChessBoard board, List<ChessMove> moves, ChessPosition startPosition, ChessPosition endPosition) {
-        if (board.checkClear(endPosition)) {
-            addAndCheckPromotion(board, moves, startPosition, endPosition);
-            return true;
-        }
-        return false;
-    }
-    private boolean addIfEnemy(ChessBoard board, List<ChessMove> moves, ChessPosition startPosition, ChessPosition endPosition) {
-        if (endPosition.outOfBounds() || board.checkClear(endPosition)) {
+    private boolean addIfIn(List<ChessMove> moves, ChessPosition startPosition, int row, int col, long targets) {
+        if (!MoveCalculator.inBounds(row, col) || !Bitboard.contains(targets, Bitboard.square(row, col))) {
             return false;
         }
-
-        ChessGame.TeamColor startColor = board.getPiece(startPosition).getTeamColor();
-        ChessGame.TeamColor endColor = board.getPiece(endPosition).getTeamColor();
-
-        if (startColor != endColor) {
-            addAndCheckPromotion(board, moves, startPosition, endPosition);
-            return true;
-        }
-        return false;
+        addAndCheckPromotion(moves, startPosition, ChessPosition.of(row, col));
+        return true;
     }
-    private void addAndCheckPromotion(ChessBoard board, List<ChessMove> moves, ChessPosition startPosition, ChessPosition endPosition) {
+
+    private void addAndCheckPromotion(List<ChessMove> moves, ChessPosition startPosition, ChessPosition endPosition) {
         if (endPosition.getRow() == 1 || endPosition.getRow() == 8) {
-            moves.add(new ChessMove(startPosition, endPosition, ChessPiece.PieceType.QUEEN));
-            moves.add(new ChessMove(startPosition, endPosition, ChessPiece.PieceType.KNIGHT));
-            moves.add(new ChessMove(startPosition, endPosition, ChessPiece.PieceType.ROOK));
-            moves.add(new ChessMove(startPosition, endPosition, ChessPiece.PieceType.BISHOP));
+            moves.add(ChessMove.of(startPosition, endPosition, ChessPiece.PieceType.QUEEN));
+            moves.add(ChessMove.of(startPosition, endPosition, ChessPiece.PieceType.KNIGHT));
+            moves.add(ChessMove.of(startPosition, endPosition, ChessPiece.PieceType.ROOK));
+            moves.add(ChessMove.of(startPosition, endPosition, ChessPiece.PieceType.BISHOP));
         }
         else {
-            moves.add(new ChessMove(startPosition, endPosition));
+            moves.add(ChessMove.of(startPosition, endPosition, null));
         }
     }
 }
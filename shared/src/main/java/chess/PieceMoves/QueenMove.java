@@ -1,21 +1,17 @@
 package chess.piecemoves;
 
+import chess.Bitboard;
 import chess.ChessBoard;
 import chess.ChessMove;
 import chess.ChessPosition;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
 
 public class QueenMove implements MoveCalculator {
 
     @Override
     public Collection<ChessMove> getMoves(ChessBoard board, ChessPosition position) {
-        List<ChessMove> moves = new ArrayList<>();
-        moves.addAll(new BishopMove().getMoves(board, position));
-        moves.addAll(new RookMove().getMoves(board, position));
-
-        return moves;
+        long attacks = SlidingAttacks.queenAttacks(Bitboard.square(position), board.getOccupied());
+        return MoveCalculator.getMovesTo(board, position, attacks);
     }
 }
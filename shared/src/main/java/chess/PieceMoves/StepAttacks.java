@@ -0,0 +1,59 @@
+package chess.piecemoves;
+
+import chess.ChessGame;
+
+/**
+ * Precomputed attack sets for pieces that move a fixed step: knights, kings
+ * and pawn captures. Each table maps a square to the set of squares a piece
+ * standing there attacks.
+ */
+public final class StepAttacks {
+
+    private static final int[][] KNIGHT_STEPS = {{2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}, {1, 2}};
+    private static final int[][] KING_STEPS = {{1, 1}, {1, 0}, {0, 1}, {1, -1}, {0, -1}, {-1, -1}, {-1, 0}, {-1, 1}};
+    private static final int[][] WHITE_PAWN_STEPS = {{1, 1}, {1, -1}};
+    private static final int[][] BLACK_PAWN_STEPS = {{-1, 1}, {-1, -1}};
+
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    private static final long[] KING_ATTACKS = new long[64];
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            KNIGHT_ATTACKS[square] = steps(square, KNIGHT_STEPS);
+            KING_ATTACKS[square] = steps(square, KING_STEPS);
+            PAWN_ATTACKS[ChessGame.TeamColor.WHITE.ordinal()][square] = steps(square, WHITE_PAWN_STEPS);
+            PAWN_ATTACKS[ChessGame.TeamColor.BLACK.ordinal()][square] = steps(square, BLACK_PAWN_STEPS);
+        }
+    }
+
+    private StepAttacks() {
+    }
+
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given color standing on the square could capture on
+     */
+    public static long pawnAttacks(ChessGame.TeamColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    private static long steps(int square, int[][] steps) {
+        long attacks = 0;
+        for (int[] step : steps) {
+            int row = (square >>> 3) + step[0];
+            int col = (square & 7) + step[1];
+            if (row >= 0 && row < 8 && col >= 0 && col < 8) {
+                attacks |= 1L << (row * 8 + col);
+            }
+        }
+        return attacks;
+    }
+}
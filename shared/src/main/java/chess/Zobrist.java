@@ -0,0 +1,83 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing. A position's key is the XOR of the keys for
+ * each piece on its square, the side to move, the castling rights and the en
+ * passant file, so playing a move only has to XOR out what changed.
+ * <p>
+ * The keys come from a fixed seed so a position gets the same key in every JVM,
+ * which keeps keys usable across the server and client.
+ */
+public final class Zobrist {
+
+    private static final long SEED = 0x5EED_C4E5_5B0A_2D1FL;
+
+    private static final long[][] PIECE_SQUARE = new long[12][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+    private static final long EN_PASSANT_OFF_TURN;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                squares[square] = random.nextLong();
+            }
+        }
+        // No rights at all hashes to zero, so a bare placement key needs no adjustment.
+        for (int rights = 1; rights < CASTLING.length; rights++) {
+            CASTLING[rights] = random.nextLong();
+        }
+        for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+            EN_PASSANT_FILE[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+        EN_PASSANT_OFF_TURN = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @param pieceIndex the piece slot from {@link Bitboard#pieceIndex}
+     * @param square     the square, 0 to 63
+     */
+    public static long piece(int pieceIndex, int square) {
+        return PIECE_SQUARE[pieceIndex][square];
+    }
+
+    public static long piece(ChessPiece piece, int square) {
+        return PIECE_SQUARE[Bitboard.pieceIndex(piece)][square];
+    }
+
+    /**
+     * @param rights castling rights as a combination of the {@code ChessBoard} castling bits
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights & 15];
+    }
+
+    /**
+     * @param column the en passant column, 1 to 8
+     */
+    public static long enPassant(int column) {
+        return EN_PASSANT_FILE[column - 1];
+    }
+
+    public static long sideToMove(ChessGame.TeamColor team) {
+        return (team == ChessGame.TeamColor.BLACK) ? BLACK_TO_MOVE : 0L;
+    }
+
+    /**
+     * Key for an en passant square the given side cannot capture on, because it
+     * was left by that side's own pawn. This happens when moves are generated for
+     * the side not to move, and tells such a key apart from the position where
+     * the other side's pawn left a square on the same column.
+     */
+    public static long enPassantOffTurn() {
+        return EN_PASSANT_OFF_TURN;
+    }
+}
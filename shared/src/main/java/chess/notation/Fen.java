@@ -0,0 +1,279 @@
+package chess.notation;
+
+import chess.Bitboard;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessPiece;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation: piece placement, side
+ * to move, castling rights, en passant square, halfmove clock and fullmove
+ * number, separated by spaces.
+ * <p>
+ * The parser reads straight from the {@link CharSequence} it is given, so
+ * loading a position creates no strings. An en passant square is only kept if
+ * a pawn can actually capture there, which is how {@link ChessGame} tracks it,
+ * so a position has the same key however it was reached.
+ */
+public final class Fen {
+
+    public static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /** White piece letters, indexed by piece type ordinal. */
+    static final String PIECE_LETTERS = "KQBNRP";
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    /** After 75 moves by each side without a capture or pawn move the game is drawn. */
+    private static final int MAX_HALFMOVE_CLOCK = 150;
+    private static final int MAX_FULLMOVE_NUMBER = 1_000_000;
+
+    private Fen() {
+    }
+
+    /**
+     * @param fen a position in FEN; the two move counters may be left out
+     * @return a new game set up at the position
+     * @throws IllegalArgumentException if the text is not a valid FEN position
+     */
+    public static ChessGame parse(CharSequence fen) {
+        return new Parser(fen).parse();
+    }
+
+    /**
+     * @return the game's current position in FEN
+     */
+    public static String format(ChessGame game) {
+        return appendTo(new StringBuilder(90), game).toString();
+    }
+
+    /**
+     * Appends the game's current position in FEN, for callers that reuse a builder.
+     *
+     * @return the builder
+     */
+    public static StringBuilder appendTo(StringBuilder out, ChessGame game) {
+        ChessBoard board = game.getBoard();
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int column = 1; column <= 8; column++) {
+                ChessPiece piece = board.getPiece(Bitboard.square(row, column));
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    out.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                out.append(pieceLetter(piece));
+            }
+            if (empty > 0) {
+                out.append((char) ('0' + empty));
+            }
+            if (row > 1) {
+                out.append('/');
+            }
+        }
+
+        out.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+
+        int rights = board.getCastlingRights();
+        if (rights == 0) {
+            out.append('-');
+        }
+        if ((rights & ChessBoard.WHITE_KINGSIDE) != 0) {
+            out.append('K');
+        }
+        if ((rights & ChessBoard.WHITE_QUEENSIDE) != 0) {
+            out.append('Q');
+        }
+        if ((rights & ChessBoard.BLACK_KINGSIDE) != 0) {
+            out.append('k');
+        }
+        if ((rights & ChessBoard.BLACK_QUEENSIDE) != 0) {
+            out.append('q');
+        }
+
+        out.append(' ');
+        int enPassant = board.getEnPassantSquare();
+        if (enPassant == Bitboard.NO_SQUARE) {
+            out.append('-');
+        } else {
+            out.append((char) ('a' + Bitboard.column(enPassant) - 1)).append(Bitboard.row(enPassant));
+        }
+
+        return out.append(' ').append(game.getHalfmoveClock())
+                .append(' ').append(game.getFullmoveNumber());
+    }
+
+    private static char pieceLetter(ChessPiece piece) {
+        char letter = PIECE_LETTERS.charAt(piece.getPieceType().ordinal());
+        return piece.getTeamColor() == ChessGame.TeamColor.WHITE ? letter : Character.toLowerCase(letter);
+    }
+
+    /**
+     * @return True if a pawn of the team to move stands beside the pawn that
+     * passed over the en passant square
+     */
+    private static boolean canCapture(ChessBoard board, int enPassant, ChessGame.TeamColor team) {
+        int passedPawn = (team == ChessGame.TeamColor.WHITE) ? enPassant - 8 : enPassant + 8;
+        long beside = ((Bitboard.bit(passedPawn) << 1) & ~Bitboard.FILE_A)
+                | ((Bitboard.bit(passedPawn) >>> 1) & ~Bitboard.FILE_H);
+        return (board.getPieces(team, ChessPiece.PieceType.PAWN) & beside) != 0;
+    }
+
+    private static final class Parser {
+        private final CharSequence fen;
+        private int index;
+
+        Parser(CharSequence fen) {
+            this.fen = fen;
+        }
+
+        ChessGame parse() {
+            ChessBoard board = parsePlacement();
+            skipSpaces();
+            ChessGame.TeamColor team = parseTeam();
+            skipSpaces();
+            board.setCastlingRights(parseCastlingRights());
+            skipSpaces();
+            int enPassant = parseEnPassant(team);
+
+            var game = new ChessGame();
+            game.setBoard(board);
+            game.setTeamTurn(team);
+            if (enPassant != Bitboard.NO_SQUARE && canCapture(board, enPassant, team)) {
+                board.setEnPassantSquare(enPassant);
+            }
+
+            skipSpaces();
+            if (index < fen.length()) {
+                game.setHalfmoveClock(parseNumber(MAX_HALFMOVE_CLOCK, "halfmove clock"));
+                skipSpaces();
+                game.setFullmoveNumber(Math.max(1, parseNumber(MAX_FULLMOVE_NUMBER, "fullmove number")));
+                skipSpaces();
+            }
+            if (index < fen.length()) {
+                throw error("unexpected text after the move counters");
+            }
+            return game;
+        }
+
+        private ChessBoard parsePlacement() {
+            var board = new ChessBoard();
+            int row = 8;
+            int column = 1;
+            while (index < fen.length() && fen.charAt(index) != ' ') {
+                char c = fen.charAt(index++);
+                if (c == '/') {
+                    if (column != 9 || row == 1) {
+                        throw error("row " + row + " does not have eight squares");
+                    }
+                    row--;
+                    column = 1;
+                } else if (c >= '1' && c <= '8') {
+                    column += c - '0';
+                } else {
+                    int type = PIECE_LETTERS.indexOf(Character.toUpperCase(c));
+                    if (type < 0 || column > 8) {
+                        throw error("unexpected '" + c + "' in the piece placement");
+                    }
+                    ChessGame.TeamColor color = Character.isUpperCase(c)
+                            ? ChessGame.TeamColor.WHITE
+                            : ChessGame.TeamColor.BLACK;
+                    board.addPiece(Bitboard.square(row, column++), ChessPiece.of(color, PIECE_TYPES[type]));
+                }
+                if (column > 9) {
+                    throw error("row " + row + " has more than eight squares");
+                }
+            }
+            if (row != 1 || column != 9) {
+                throw error("the piece placement does not cover eight rows of eight squares");
+            }
+            return board;
+        }
+
+        private ChessGame.TeamColor parseTeam() {
+            char c = next();
+            if (c == 'w') {
+                return ChessGame.TeamColor.WHITE;
+            }
+            if (c == 'b') {
+                return ChessGame.TeamColor.BLACK;
+            }
+            throw error("side to move must be 'w' or 'b'");
+        }
+
+        private int parseCastlingRights() {
+            if (peek() == '-') {
+                index++;
+                return 0;
+            }
+            int rights = 0;
+            while (index < fen.length() && fen.charAt(index) != ' ') {
+                rights |= switch (fen.charAt(index++)) {
+                    case 'K' -> ChessBoard.WHITE_KINGSIDE;
+                    case 'Q' -> ChessBoard.WHITE_QUEENSIDE;
+                    case 'k' -> ChessBoard.BLACK_KINGSIDE;
+                    case 'q' -> ChessBoard.BLACK_QUEENSIDE;
+                    default -> throw error("castling rights must be '-' or letters from 'KQkq'");
+                };
+            }
+            if (rights == 0) {
+                throw error("missing castling rights");
+            }
+            return rights;
+        }
+
+        private int parseEnPassant(ChessGame.TeamColor team) {
+            char file = next();
+            if (file == '-') {
+                return Bitboard.NO_SQUARE;
+            }
+            char rank = next();
+            int expectedRank = (team == ChessGame.TeamColor.WHITE) ? '6' : '3';
+            if (file < 'a' || file > 'h' || rank != expectedRank) {
+                throw error("en passant square must be '-' or a square on rank " + (char) expectedRank);
+            }
+            return Bitboard.square(rank - '0', file - 'a' + 1);
+        }
+
+        private int parseNumber(int max, String name) {
+            int start = index;
+            int value = 0;
+            while (index < fen.length() && fen.charAt(index) >= '0' && fen.charAt(index) <= '9') {
+                value = value * 10 + (fen.charAt(index++) - '0');
+                if (value > max) {
+                    throw error(name + " cannot be more than " + max);
+                }
+            }
+            if (index == start) {
+                throw error("move counters must be numbers");
+            }
+            return value;
+        }
+
+        private char next() {
+            char c = peek();
+            index++;
+            return c;
+        }
+
+        private char peek() {
+            if (index >= fen.length()) {
+                throw error("FEN ends too early");
+            }
+            return fen.charAt(index);
+        }
+
+        private void skipSpaces() {
+            while (index < fen.length() && fen.charAt(index) == ' ') {
+                index++;
+            }
+        }
+
+        private IllegalArgumentException error(String problem) {
+            return new IllegalArgumentException("Invalid FEN at character " + index + ": " + problem + ".");
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package chess.notation;
+
+import chess.Bitboard;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.piecemoves.MoveList;
+import chess.piecemoves.PackedMove;
+
+/**
+ * Reads and writes moves in Standard Algebraic Notation, as in {@code Nf3},
+ * {@code exd5}, {@code O-O} or {@code e8=Q+}. SAN names a move relative to a
+ * position: the start square is only given, by file, rank or both, when another
+ * piece of the same type could also reach the end square. Both directions
+ * therefore work from the legal moves of the side to move.
+ * <p>
+ * Formatting plays the move and takes it back to find check and checkmate, so
+ * the game must not be used by another thread at the same time.
+ */
+public final class San {
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private San() {
+    }
+
+    /**
+     * @param game the game in the position before the move
+     * @param move a legal move for the side to move
+     * @return the move in SAN
+     * @throws IllegalArgumentException if the move is not legal in the position
+     */
+    public static String format(ChessGame game, ChessMove move) {
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+        int packed = find(moves, move);
+
+        ChessBoard board = game.getBoard();
+        int from = PackedMove.from(packed);
+        int to = PackedMove.to(packed);
+        ChessPiece.PieceType type = board.getPiece(from).getPieceType();
+        boolean capture = PackedMove.hasFlag(packed, PackedMove.CAPTURE);
+
+        var out = new StringBuilder(8);
+        if (PackedMove.hasFlag(packed, PackedMove.CASTLE)) {
+            out.append(to > from ? "O-O" : "O-O-O");
+        } else if (type == ChessPiece.PieceType.PAWN) {
+            if (capture) {
+                out.append(file(from)).append('x');
+            }
+            Uci.appendSquare(out, ChessPosition.ofSquare(to));
+            if (PackedMove.promotion(packed) != null) {
+                out.append('=').append(Fen.PIECE_LETTERS.charAt(PackedMove.promotion(packed).ordinal()));
+            }
+        } else {
+            out.append(Fen.PIECE_LETTERS.charAt(type.ordinal()));
+            appendDisambiguation(out, board, moves, from, to, type);
+            if (capture) {
+                out.append('x');
+            }
+            Uci.appendSquare(out, ChessPosition.ofSquare(to));
+        }
+
+        game.doMove(packed);
+        ChessGame.TeamColor opponent = game.getTeamTurn();
+        if (game.isInCheckmate(opponent)) {
+            out.append('#');
+        } else if (game.isInCheck(opponent)) {
+            out.append('+');
+        }
+        game.undoMove();
+        return out.toString();
+    }
+
+    /**
+     * @param game the game in the position before the move
+     * @param san  a move in SAN; check, checkmate and annotation marks at the end
+     *             are ignored, and castling may be written with zeros
+     * @return the legal move the text names
+     * @throws IllegalArgumentException if the text names no legal move or more than one
+     */
+    public static ChessMove parse(ChessGame game, CharSequence san) {
+        int end = san.length();
+        while (end > 0 && "+#!?".indexOf(san.charAt(end - 1)) >= 0) {
+            end--;
+        }
+        MoveList moves = new MoveList();
+        game.legalMoves(moves);
+
+        int castle = castleDirection(san, end);
+        if (castle != 0) {
+            for (int i = 0; i < moves.size(); i++) {
+                int move = moves.get(i);
+                if (PackedMove.hasFlag(move, PackedMove.CASTLE)
+                        && Integer.signum(PackedMove.to(move) - PackedMove.from(move)) == castle) {
+                    return PackedMove.toChessMove(move);
+                }
+            }
+            throw new IllegalArgumentException("Castling is not legal here: " + san);
+        }
+
+        int start = 0;
+        ChessPiece.PieceType type = ChessPiece.PieceType.PAWN;
+        if (end > 0 && pieceLetter(san.charAt(0)) >= 0) {
+            type = PIECE_TYPES[pieceLetter(san.charAt(0))];
+            start = 1;
+        }
+
+        ChessPiece.PieceType promotion = null;
+        if (type == ChessPiece.PieceType.PAWN && end > 0 && pieceLetter(san.charAt(end - 1)) > 0) {
+            promotion = PIECE_TYPES[pieceLetter(san.charAt(end - 1))];
+            end -= (end > 1 && san.charAt(end - 2) == '=') ? 2 : 1;
+        }
+        if (end - start < 2) {
+            throw new IllegalArgumentException("Not a SAN move: " + san);
+        }
+        int to = Uci.square(san, end - 2);
+
+        int fromColumn = 0;
+        int fromRow = 0;
+        for (int i = start; i < end - 2; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h') {
+                fromColumn = c - 'a' + 1;
+            } else if (c >= '1' && c <= '8') {
+                fromRow = c - '0';
+            } else if (c != 'x') {
+                throw new IllegalArgumentException("Not a SAN move: " + san);
+            }
+        }
+
+        ChessBoard board = game.getBoard();
+        int match = 0;
+        int matches = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = PackedMove.from(move);
+            if (PackedMove.to(move) == to
+                    && PackedMove.promotion(move) == promotion
+                    && board.getPiece(from).getPieceType() == type
+                    && (fromColumn == 0 || Bitboard.column(from) == fromColumn)
+                    && (fromRow == 0 || Bitboard.row(from) == fromRow)) {
+                match = move;
+                matches++;
+            }
+        }
+        if (matches == 0) {
+            throw new IllegalArgumentException("No legal move matches " + san);
+        }
+        if (matches > 1) {
+            throw new IllegalArgumentException("More than one legal move matches " + san);
+        }
+        return PackedMove.toChessMove(match);
+    }
+
+    private static int find(MoveList moves, ChessMove move) {
+        if (move.getStartPosition().outOfBounds() || move.getEndPosition().outOfBounds()) {
+            throw new IllegalArgumentException("Move is off the board: " + move);
+        }
+        int packed = PackedMove.encode(move);
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.sameMove(moves.get(i), packed)) {
+                return moves.get(i);
+            }
+        }
+        throw new IllegalArgumentException("Move is not legal in this position: " + move);
+    }
+
+    /**
+     * Adds the file, rank or both of the start square when another piece of the
+     * same type can also move to the end square: the file if that tells them
+     * apart, otherwise the rank, otherwise both.
+     */
+    private static void appendDisambiguation(StringBuilder out, ChessBoard board, MoveList moves,
+                                             int from, int to, ChessPiece.PieceType type) {
+        boolean ambiguous = false;
+        boolean sharesFile = false;
+        boolean sharesRank = false;
+        for (int i = 0; i < moves.size(); i++) {
+            int other = PackedMove.from(moves.get(i));
+            if (PackedMove.to(moves.get(i)) != to || other == from || board.getPiece(other).getPieceType() != type) {
+                continue;
+            }
+            ambiguous = true;
+            sharesFile |= Bitboard.column(other) == Bitboard.column(from);
+            sharesRank |= Bitboard.row(other) == Bitboard.row(from);
+        }
+        if (!ambiguous) {
+            return;
+        }
+        if (!sharesFile) {
+            out.append(file(from));
+        } else if (!sharesRank) {
+            out.append((char) ('0' + Bitboard.row(from)));
+        } else {
+            out.append(file(from)).append((char) ('0' + Bitboard.row(from)));
+        }
+    }
+
+    /**
+     * @return 1 for kingside castling, -1 for queenside, 0 if the text is not castling
+     */
+    private static int castleDirection(CharSequence san, int end) {
+        if (end != 3 && end != 5) {
+            return 0;
+        }
+        for (int i = 0; i < end; i++) {
+            char c = san.charAt(i);
+            boolean expected = (i % 2 == 0) ? (c == 'O' || c == '0') : c == '-';
+            if (!expected) {
+                return 0;
+            }
+        }
+        return (end == 3) ? 1 : -1;
+    }
+
+    /**
+     * @return the piece type ordinal for a piece letter other than a pawn's, or -1
+     */
+    private static int pieceLetter(char c) {
+        int index = Fen.PIECE_LETTERS.indexOf(c);
+        return (index == ChessPiece.PieceType.PAWN.ordinal()) ? -1 : index;
+    }
+
+    private static char file(int square) {
+        return (char) ('a' + Bitboard.column(square) - 1);
+    }
+}
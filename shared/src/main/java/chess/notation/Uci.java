@@ -0,0 +1,83 @@
+package chess.notation;
+
+import chess.Bitboard;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+
+/**
+ * Reads and writes moves in the coordinate notation of the Universal Chess
+ * Interface: the start and end squares, then the promotion piece in lower case
+ * if there is one, as in {@code e2e4} or {@code e7e8q}. Unlike SAN it does not
+ * depend on the position, so it can be read without a game.
+ */
+public final class Uci {
+
+    private Uci() {
+    }
+
+    /**
+     * @return the move in UCI notation
+     * @throws IllegalArgumentException if either position is off the board
+     */
+    public static String format(ChessMove move) {
+        return appendTo(new StringBuilder(5), move).toString();
+    }
+
+    /**
+     * Appends the move in UCI notation, for callers that reuse a builder.
+     *
+     * @return the builder
+     */
+    public static StringBuilder appendTo(StringBuilder out, ChessMove move) {
+        appendSquare(out, move.getStartPosition());
+        appendSquare(out, move.getEndPosition());
+        if (move.getPromotionPiece() != null) {
+            out.append(Character.toLowerCase(Fen.PIECE_LETTERS.charAt(move.getPromotionPiece().ordinal())));
+        }
+        return out;
+    }
+
+    /**
+     * @return the shared {@link ChessMove} instance for a move in UCI notation
+     * @throws IllegalArgumentException if the text is not a UCI move
+     */
+    public static ChessMove parse(CharSequence uci) {
+        if (uci.length() != 4 && uci.length() != 5) {
+            throw new IllegalArgumentException("UCI move must be 4 or 5 characters: " + uci);
+        }
+        int from = square(uci, 0);
+        int to = square(uci, 2);
+        ChessPiece.PieceType promotion = null;
+        if (uci.length() == 5) {
+            promotion = switch (uci.charAt(4)) {
+                case 'q' -> ChessPiece.PieceType.QUEEN;
+                case 'r' -> ChessPiece.PieceType.ROOK;
+                case 'b' -> ChessPiece.PieceType.BISHOP;
+                case 'n' -> ChessPiece.PieceType.KNIGHT;
+                default -> throw new IllegalArgumentException("Unknown promotion piece in UCI move: " + uci);
+            };
+        }
+        return ChessMove.of(from, to, promotion);
+    }
+
+    /**
+     * @return the square index of a square name such as {@code e4} at the given
+     * offset, or throws if it is not one
+     */
+    static int square(CharSequence text, int offset) {
+        char file = text.charAt(offset);
+        char rank = text.charAt(offset + 1);
+        if (file < 'a' || file > 'h' || rank < '1' || rank > '8') {
+            throw new IllegalArgumentException("Not a square: " + text.subSequence(offset, offset + 2));
+        }
+        return Bitboard.square(rank - '0', file - 'a' + 1);
+    }
+
+    static void appendSquare(StringBuilder out, ChessPosition position) {
+        if (position.outOfBounds()) {
+            throw new IllegalArgumentException("Position is off the board: " + position);
+        }
+        out.append((char) ('a' + position.getColumn() - 1)).append((char) ('0' + position.getRow()));
+    }
+}
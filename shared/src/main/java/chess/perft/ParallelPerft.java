@@ -0,0 +1,120 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.piecemoves.MoveList;
+import chess.piecemoves.PackedMove;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs {@link Perft} on a fork-join pool. The tree is split into one task per
+ * move for the first {@code splitDepth} plies; each task plays its move on its
+ * own copy of the game and counts the rest of its subtree sequentially.
+ * <p>
+ * Splitting only at the root gives as many tasks as there are root moves, which
+ * is usually enough to keep a handful of cores busy. Splitting one ply deeper
+ * evens out subtrees of very different sizes on machines with more cores.
+ */
+public class ParallelPerft {
+
+    private final ForkJoinPool pool;
+    private final int splitDepth;
+
+    public ParallelPerft() {
+        this(ForkJoinPool.commonPool(), 1);
+    }
+
+    /**
+     * @param pool       the pool that runs the tasks
+     * @param splitDepth how many plies below the root are split into tasks, 1 or more
+     */
+    public ParallelPerft(ForkJoinPool pool, int splitDepth) {
+        if (splitDepth < 1) {
+            throw new IllegalArgumentException("Split depth must be at least 1.");
+        }
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+    }
+
+    /**
+     * @param game the position to count from; it is copied, not modified
+     * @return the same count as {@link Perft#perft(int)}
+     */
+    public long perft(ChessGame game, int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth cannot be negative.");
+        }
+        return pool.invoke(new PerftTask(new ChessGame(game), depth, splitDepth));
+    }
+
+    /**
+     * @param game the position to count from; it is copied, not modified
+     * @return the same counts as {@link Perft#divide(int)}
+     */
+    public Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1.");
+        }
+        MoveList rootMoves = new MoveList();
+        game.legalMoves(rootMoves);
+
+        List<PerftTask> tasks = childTasks(game, rootMoves, depth - 1, splitDepth - 1);
+        pool.invoke(new RecursiveTask<Void>() {
+            @Override
+            protected Void compute() {
+                invokeAll(tasks);
+                return null;
+            }
+        });
+
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < rootMoves.size(); i++) {
+            counts.put(PackedMove.toChessMove(rootMoves.get(i)), tasks.get(i).join());
+        }
+        return counts;
+    }
+
+    private static List<PerftTask> childTasks(ChessGame game, MoveList moves, int depth, int splitDepth) {
+        List<PerftTask> tasks = new ArrayList<>(moves.size());
+        for (int i = 0; i < moves.size(); i++) {
+            ChessGame child = new ChessGame(game);
+            child.doMove(moves.get(i));
+            tasks.add(new PerftTask(child, depth, splitDepth));
+        }
+        return tasks;
+    }
+
+    private static class PerftTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+        private final int splitDepth;
+
+        PerftTask(ChessGame game, int depth, int splitDepth) {
+            this.game = game;
+            this.depth = depth;
+            this.splitDepth = splitDepth;
+        }
+
+        @Override
+        protected Long compute() {
+            // Shallow subtrees are cheaper to count than to copy boards for.
+            if (splitDepth == 0 || depth <= 1) {
+                return new Perft(game).perft(depth);
+            }
+            MoveList moves = new MoveList();
+            game.legalMoves(moves);
+
+            long nodes = 0;
+            for (PerftTask task : invokeAll(childTasks(game, moves, depth - 1, splitDepth - 1))) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+}
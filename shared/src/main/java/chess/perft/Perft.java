@@ -0,0 +1,138 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.piecemoves.MoveList;
+import chess.piecemoves.PackedMove;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree below a position ("perft").
+ * Comparing the counts with published values checks the move generator, and
+ * timing them gives a nodes-per-second figure for it.
+ * <p>
+ * Moves are played with {@link ChessGame#doMove(int)} and taken back with
+ * {@link ChessGame#undoMove()}, so one game is searched in place. An instance
+ * keeps one move list per ply and is not thread safe.
+ */
+public class Perft {
+
+    private final ChessGame game;
+    private MoveList[] movesByPly;
+
+    public Perft(ChessGame game) {
+        this.game = game;
+        movesByPly = new MoveList[0];
+    }
+
+    /**
+     * @param depth the number of plies to search, 0 or more
+     * @return the number of positions reached after exactly {@code depth} plies
+     */
+    public long perft(int depth) {
+        if (depth < 0) {
+            throw new IllegalArgumentException("Depth cannot be negative.");
+        }
+        ensurePlies(depth);
+        return count(depth, 0);
+    }
+
+    /**
+     * Splits the perft count by root move, which narrows a wrong total down to
+     * the move whose subtree is off.
+     *
+     * @param depth the number of plies to search, 1 or more
+     * @return the count below each legal root move, in generation order
+     */
+    public Map<ChessMove, Long> divide(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Depth must be at least 1.");
+        }
+        ensurePlies(depth);
+        MoveList rootMoves = movesByPly[0];
+        game.legalMoves(rootMoves);
+
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < rootMoves.size(); i++) {
+            int move = rootMoves.get(i);
+            game.doMove(move);
+            counts.put(PackedMove.toChessMove(move), count(depth - 1, 1));
+            game.undoMove();
+        }
+        return counts;
+    }
+
+    private long count(int depth, int ply) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = movesByPly[ply];
+        game.legalMoves(moves);
+        // Every legal move is a leaf at the last ply, so there is no need to play them.
+        if (depth == 1) {
+            return moves.size();
+        }
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.doMove(moves.get(i));
+            nodes += count(depth - 1, ply + 1);
+            game.undoMove();
+        }
+        return nodes;
+    }
+
+    private void ensurePlies(int depth) {
+        if (movesByPly.length >= depth) {
+            return;
+        }
+        MoveList[] plies = new MoveList[depth];
+        System.arraycopy(movesByPly, 0, plies, 0, movesByPly.length);
+        for (int ply = movesByPly.length; ply < depth; ply++) {
+            plies[ply] = new MoveList();
+        }
+        movesByPly = plies;
+    }
+
+    /**
+     * Runs the reference positions and prints each count with its speed.
+     * Arguments: an optional maximum depth, then optional position names
+     * (see {@link PerftPosition}). Exits with status 1 if any count is wrong.
+     */
+    public static void main(String[] args) {
+        int maxDepth = (args.length > 0) ? Integer.parseInt(args[0]) : Integer.MAX_VALUE;
+        boolean failed = false;
+
+        for (PerftPosition position : PerftPosition.values()) {
+            if (args.length > 1 && !containsName(args, position.name())) {
+                continue;
+            }
+            Perft perft = new Perft(position.newGame());
+            long[] expected = position.getExpectedCounts();
+            for (int depth = 1; depth <= Math.min(expected.length, maxDepth); depth++) {
+                long start = System.nanoTime();
+                long nodes = perft.perft(depth);
+                long nanos = Math.max(System.nanoTime() - start, 1);
+                boolean correct = nodes == expected[depth - 1];
+                failed |= !correct;
+                System.out.printf("%-10s depth %d: %,12d nodes %,14.0f nps %s%n", position, depth, nodes,
+                        nodes * 1e9 / nanos, correct ? "ok" : "EXPECTED " + expected[depth - 1]);
+            }
+        }
+
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean containsName(String[] args, String name) {
+        for (int i = 1; i < args.length; i++) {
+            if (args[i].equalsIgnoreCase(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,49 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.notation.Fen;
+
+/**
+ * Standard perft reference positions with their published node counts by depth.
+ */
+public enum PerftPosition {
+
+    START(Fen.START, 20, 400, 8902, 197281, 4865609),
+
+    KIWIPETE("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", 48, 2039, 97862),
+
+    POSITION_3("8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", 14, 191, 2812, 43238, 674624),
+
+    POSITION_4("r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", 6, 264, 9467, 422333),
+
+    POSITION_5("rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", 44, 1486, 62379);
+
+    private final String fen;
+    private final long[] expectedCounts;
+
+    PerftPosition(String fen, long... expectedCounts) {
+        this.fen = fen;
+        this.expectedCounts = expectedCounts;
+    }
+
+    /**
+     * @return a new game set up at this position
+     */
+    public ChessGame newGame() {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return this position in FEN
+     */
+    public String getFen() {
+        return fen;
+    }
+
+    /**
+     * @return the expected counts, where index 0 holds depth 1
+     */
+    public long[] getExpectedCounts() {
+        return expectedCounts.clone();
+    }
+}
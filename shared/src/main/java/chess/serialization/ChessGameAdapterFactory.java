@@ -0,0 +1,57 @@
+package chess.serialization;
+
+import chess.ChessGame;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes games field by field as Gson would, but keeps only the position keys
+ * the halfmove clock covers. The rest of the history array is spare capacity
+ * and would otherwise be stored as zeros with every game.
+ */
+public class ChessGameAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        if (type.getRawType() != ChessGame.class) {
+            return null;
+        }
+        TypeAdapter<ChessGame> delegate = gson.getDelegateAdapter(this, TypeToken.get(ChessGame.class));
+        TypeAdapter<JsonElement> elements = gson.getAdapter(JsonElement.class);
+        return (TypeAdapter<T>) new TypeAdapter<ChessGame>() {
+            @Override
+            public void write(JsonWriter out, ChessGame game) throws IOException {
+                if (game == null) {
+                    out.nullValue();
+                    return;
+                }
+                JsonObject tree = delegate.toJsonTree(game).getAsJsonObject();
+                JsonArray history = tree.getAsJsonArray("positionHistory");
+                if (history != null) {
+                    int used = Math.min(game.getHalfmoveClock(), history.size());
+                    var trimmed = new JsonArray(used);
+                    for (int i = 0; i < used; i++) {
+                        trimmed.add(history.get(i));
+                    }
+                    tree.add("positionHistory", trimmed);
+                }
+                elements.write(out, tree);
+            }
+
+            @Override
+            public ChessGame read(JsonReader in) throws IOException {
+                return delegate.read(in);
+            }
+        };
+    }
+}
@@ -0,0 +1,90 @@
+package chess.serialization;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.notation.Uci;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Writes moves as UCI strings such as {@code "e7e8q"}. Reads those as well as
+ * the object form with start and end positions that older clients send.
+ */
+public class ChessMoveAdapter extends TypeAdapter<ChessMove> {
+
+    @Override
+    public void write(JsonWriter out, ChessMove move) throws IOException {
+        if (move == null) {
+            out.nullValue();
+            return;
+        }
+        out.value(Uci.format(move));
+    }
+
+    @Override
+    public ChessMove read(JsonReader in) throws IOException {
+        JsonToken token = in.peek();
+        if (token == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        if (token == JsonToken.STRING) {
+            try {
+                return Uci.parse(in.nextString());
+            } catch (IllegalArgumentException e) {
+                throw new JsonParseException(e.getMessage(), e);
+            }
+        }
+
+        ChessPosition start = null;
+        ChessPosition end = null;
+        ChessPiece.PieceType promotion = null;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            switch (name) {
+                case "startPosition" -> start = readPosition(in);
+                case "endPosition" -> end = readPosition(in);
+                case "promotionPiece" -> {
+                    if (in.peek() == JsonToken.NULL) {
+                        in.nextNull();
+                    } else {
+                        promotion = ChessPiece.PieceType.valueOf(in.nextString());
+                    }
+                }
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        if (start == null || end == null) {
+            throw new JsonParseException("Move needs a start and an end position.");
+        }
+        return ChessMove.of(start, end, promotion);
+    }
+
+    private static ChessPosition readPosition(JsonReader in) throws IOException {
+        int row = 0;
+        int col = 0;
+
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            switch (name) {
+                case "row" -> row = in.nextInt();
+                case "col" -> col = in.nextInt();
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+
+        return ChessPosition.of(row, col);
+    }
+}
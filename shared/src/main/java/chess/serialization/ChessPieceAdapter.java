@@ -20,7 +20,6 @@ public class ChessPieceAdapter extends TypeAdapter<ChessPiece> {
         out.beginObject();
         out.name("pieceColor").value(piece.getTeamColor().name());
         out.name("type").value(piece.getPieceType().name());
-        out.name("moved").value(piece.hasMoved());
         out.endObject();
     }
 
@@ -34,7 +33,6 @@ public class ChessPieceAdapter extends TypeAdapter<ChessPiece> {
 
         ChessGame.TeamColor teamColor = null;
         ChessPiece.PieceType type = null;
-        boolean moved = false;
 
         in.beginObject();
         while (in.hasNext()) {
@@ -42,17 +40,11 @@ public class ChessPieceAdapter extends TypeAdapter<ChessPiece> {
             switch (name) {
                 case "pieceColor" -> teamColor = ChessGame.TeamColor.valueOf(in.nextString());
                 case "type" -> type = ChessPiece.PieceType.valueOf(in.nextString());
-                case "moved" -> moved = in.nextBoolean();
                 default -> in.skipValue();
             }
         }
         in.endObject();
 
-        ChessPiece piece = new ChessPiece(teamColor, type);
-        if (moved) {
-            piece.setMoved();
-        }
-
-        return piece;
+        return ChessPiece.of(teamColor, type);
     }
 }
@@ -1,5 +1,6 @@
 package chess.serialization;
 
+import chess.ChessMove;
 import chess.ChessPiece;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -8,6 +9,8 @@ public class GsonFactory {
     public static Gson create() {
         return new GsonBuilder()
                 .registerTypeAdapter(ChessPiece.class, new ChessPieceAdapter())
+                .registerTypeAdapter(ChessMove.class, new ChessMoveAdapter())
+                .registerTypeAdapterFactory(new ChessGameAdapterFactory())
                 .create();
     }
 }
@@ -0,0 +1,90 @@
+package chess.validation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Replays many recorded games at once on a fork-join pool to check that every
+ * move in them is legal. Each game is replayed from the starting position on
+ * its own {@link ChessGame}, so games are independent and the archive is split
+ * into ranges that workers can steal from each other.
+ */
+public class GameArchiveValidator {
+
+    /** Result for a game in which every move was legal. */
+    public static final int VALID = -1;
+
+    private static final int GAMES_PER_TASK = 16;
+
+    private final ForkJoinPool pool;
+
+    public GameArchiveValidator() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public GameArchiveValidator(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * @param games the moves of each game, in the order they were played
+     * @return for each game, the index of its first illegal move, or {@link #VALID}
+     */
+    public int[] validate(List<? extends List<ChessMove>> games) {
+        int[] results = new int[games.size()];
+        pool.invoke(new ValidateTask(games, results, 0, games.size()));
+        return results;
+    }
+
+    /**
+     * @return the index of the first illegal move in the game, or {@link #VALID};
+     * a missing move or one with squares off the board is illegal
+     */
+    public static int validateGame(List<ChessMove> moves) {
+        ChessGame game = new ChessGame();
+        for (int ply = 0; ply < moves.size(); ply++) {
+            ChessMove move = moves.get(ply);
+            if (move == null || move.getStartPosition().outOfBounds() || move.getEndPosition().outOfBounds()) {
+                return ply;
+            }
+            try {
+                game.makeMove(move);
+            } catch (InvalidMoveException e) {
+                return ply;
+            }
+        }
+        return VALID;
+    }
+
+    private static class ValidateTask extends RecursiveAction {
+        private final List<? extends List<ChessMove>> games;
+        private final int[] results;
+        private final int start;
+        private final int end;
+
+        ValidateTask(List<? extends List<ChessMove>> games, int[] results, int start, int end) {
+            this.games = games;
+            this.results = results;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= GAMES_PER_TASK) {
+                for (int i = start; i < end; i++) {
+                    results[i] = validateGame(games.get(i));
+                }
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new ValidateTask(games, results, start, middle),
+                    new ValidateTask(games, results, middle, end));
+        }
+    }
+}
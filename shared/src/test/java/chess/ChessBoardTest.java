@@ -0,0 +1,96 @@
+package chess;
+
+import chess.serialization.GsonFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChessBoardTest {
+
+    @Test
+    void copyEqualsOriginal() {
+        var board = new ChessBoard();
+        board.resetBoard();
+
+        var copy = new ChessBoard(board);
+
+        assertEquals(board, copy);
+        assertEquals(board.getPlacementKey(), copy.getPlacementKey());
+        assertEquals(board.getOccupied(), copy.getOccupied());
+        assertEquals(board.toString(), copy.toString());
+    }
+
+    @Test
+    void copyIsIndependent() {
+        var board = new ChessBoard();
+        board.resetBoard();
+        var copy = new ChessBoard(board);
+
+        copy.addPiece(new ChessPosition(2, 5), null);
+        copy.addPiece(new ChessPosition(4, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        copy.setCastlingRights(0);
+
+        assertNotNull(board.getPiece(new ChessPosition(2, 5)));
+        assertNull(board.getPiece(new ChessPosition(4, 5)));
+        assertNotEquals(board.getPlacementKey(), copy.getPlacementKey());
+        assertEquals(ChessBoard.ALL_CASTLING_RIGHTS, board.getCastlingRights());
+    }
+
+    @Test
+    void copySharesPieceInstances() {
+        var board = new ChessBoard();
+        board.resetBoard();
+
+        var copy = new ChessBoard(board);
+
+        assertSame(board.getPiece(new ChessPosition(1, 5)), copy.getPiece(new ChessPosition(1, 5)));
+    }
+
+    @Test
+    void castlingRightsNeedKingAndRookAtHome() {
+        var board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(1, 8), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        board.addPiece(new ChessPosition(8, 1), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK));
+
+        assertEquals(ChessBoard.WHITE_KINGSIDE, board.getCastlingRights());
+
+        board.setCastlingRights(ChessBoard.WHITE_QUEENSIDE | ChessBoard.BLACK_QUEENSIDE);
+        assertEquals(0, board.getCastlingRights());
+    }
+
+    @Test
+    void copyOfEmptyBoard() {
+        var copy = new ChessBoard(new ChessBoard());
+
+        assertEquals(0, copy.getOccupied());
+        assertEquals(new ChessBoard(), copy);
+    }
+
+    @Test
+    void castlingRightsSurviveSerialization() {
+        var board = new ChessBoard();
+        board.resetBoard();
+        board.setCastlingRights(ChessBoard.WHITE_QUEENSIDE | ChessBoard.BLACK_KINGSIDE);
+        var gson = GsonFactory.create();
+
+        var copy = gson.fromJson(gson.toJson(board), ChessBoard.class);
+
+        assertEquals(board, copy);
+        assertEquals(ChessBoard.WHITE_QUEENSIDE | ChessBoard.BLACK_KINGSIDE, copy.getCastlingRights());
+    }
+
+    @Test
+    void legacyJsonWithMovedFlagsLoads() {
+        var firstRow = "[null,null,null,null,{\"pieceColor\":\"WHITE\",\"type\":\"KING\",\"moved\":true},"
+                + "null,null,{\"pieceColor\":\"WHITE\",\"type\":\"ROOK\",\"moved\":false}]";
+        var emptyRow = "[null,null,null,null,null,null,null,null]";
+        var json = "{\"board\":[" + firstRow + ("," + emptyRow).repeat(7) + "]}";
+
+        var board = GsonFactory.create().fromJson(json, ChessBoard.class);
+
+        assertSame(ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING),
+                board.getPiece(new ChessPosition(1, 5)));
+        assertEquals(ChessBoard.WHITE_KINGSIDE, board.getCastlingRights());
+    }
+}
@@ -0,0 +1,199 @@
+package chess;
+
+import chess.notation.Uci;
+import chess.serialization.GsonFactory;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DrawRulesTest {
+
+    @Test
+    void knightShuffleIsThreefoldRepetition() {
+        var game = new ChessGame();
+        shuffleKnights(game);
+        assertFalse(game.isThreefoldRepetition());
+
+        shuffleKnights(game);
+        assertTrue(game.isThreefoldRepetition());
+        assertEquals(8, game.getHalfmoveClock());
+    }
+
+    @Test
+    void undoRestoresRepetitionAndClock() {
+        var game = new ChessGame();
+        game.doMove(Uci.parse("e2e4"));
+        shuffleKnights(game);
+        shuffleKnights(game);
+        assertTrue(game.isThreefoldRepetition());
+
+        game.undoMove();
+        assertFalse(game.isThreefoldRepetition());
+        assertEquals(7, game.getHalfmoveClock());
+
+        for (int i = 0; i < 7; i++) {
+            game.undoMove();
+        }
+        assertEquals(0, game.getHalfmoveClock());
+
+        game.undoMove();
+        assertEquals(0, game.getHalfmoveClock());
+        assertEquals(new ChessGame().getPositionKey(), game.getPositionKey());
+    }
+
+    @Test
+    void pawnMoveResetsClockAndHistory() {
+        var game = new ChessGame();
+        shuffleKnights(game);
+        game.doMove(Uci.parse("e2e4"));
+        assertEquals(0, game.getHalfmoveClock());
+
+        shuffleKnights(game);
+        assertFalse(game.isThreefoldRepetition());
+        assertEquals(4, game.getHalfmoveClock());
+    }
+
+    @Test
+    void fiftyMoveRuleAfterHundredHalfmoves() {
+        var game = new ChessGame();
+        for (int i = 0; i < 25; i++) {
+            shuffleKnights(game);
+        }
+        assertEquals(100, game.getHalfmoveClock());
+        assertTrue(game.isFiftyMoveRule());
+
+        game.undoMove();
+        assertFalse(game.isFiftyMoveRule());
+    }
+
+    @Test
+    void drawStateSurvivesSerialization() {
+        var game = new ChessGame();
+        shuffleKnights(game);
+        shuffleKnights(game);
+
+        var gson = GsonFactory.create();
+        ChessGame copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+
+        assertTrue(copy.isThreefoldRepetition());
+        assertEquals(8, copy.getHalfmoveClock());
+        // The position after Nf3 was seen twice before the round trip.
+        copy.doMove(Uci.parse("g1f3"));
+        assertTrue(copy.isThreefoldRepetition());
+        assertEquals(9, copy.getHalfmoveClock());
+    }
+
+    @Test
+    void serializedHistoryHoldsOnlyClockEntries() {
+        var game = new ChessGame();
+        shuffleKnights(game);
+        shuffleKnights(game);
+
+        var json = JsonParser.parseString(GsonFactory.create().toJson(game)).getAsJsonObject();
+
+        assertEquals(8, json.getAsJsonArray("positionHistory").size());
+    }
+
+    @Test
+    void largeHalfmoveClockKeepsHistoryBounded() {
+        var game = new ChessGame();
+        game.setHalfmoveClock(1_000_000);
+
+        var gson = GsonFactory.create();
+        var json = JsonParser.parseString(gson.toJson(game)).getAsJsonObject();
+        assertEquals(100, json.getAsJsonArray("positionHistory").size());
+
+        ChessGame copy = gson.fromJson(json, ChessGame.class);
+        shuffleKnights(copy);
+        assertFalse(copy.isThreefoldRepetition());
+        shuffleKnights(copy);
+        assertTrue(copy.isThreefoldRepetition());
+        assertEquals(1_000_008, copy.getHalfmoveClock());
+    }
+
+    @Test
+    void repetitionFoundAfterHistoryWraps() {
+        var game = new ChessGame();
+        for (int i = 0; i < 30; i++) {
+            shuffleKnights(game);
+        }
+        assertEquals(120, game.getHalfmoveClock());
+        assertTrue(game.isThreefoldRepetition());
+
+        game.undoMove();
+        game.undoMove();
+        game.undoMove();
+        game.undoMove();
+        assertTrue(game.isThreefoldRepetition());
+        game.doMove(Uci.parse("g1f3"));
+        assertTrue(game.isThreefoldRepetition());
+    }
+
+    @Test
+    void loneKingsAndSingleMinorPieceAreInsufficient() {
+        assertTrue(gameWith().isInsufficientMaterial());
+        assertTrue(gameWith("c1", ChessPiece.PieceType.BISHOP).isInsufficientMaterial());
+        assertTrue(gameWith("g8", ChessPiece.PieceType.KNIGHT).isInsufficientMaterial());
+        assertFalse(new ChessGame().isInsufficientMaterial());
+    }
+
+    @Test
+    void bishopsOnOneSquareColorAreInsufficient() {
+        // c1 and f8 are both dark squares; c1 and c8 are not.
+        assertTrue(gameWith("c1", ChessPiece.PieceType.BISHOP, "f8", ChessPiece.PieceType.BISHOP)
+                .isInsufficientMaterial());
+        assertFalse(gameWith("c1", ChessPiece.PieceType.BISHOP, "c8", ChessPiece.PieceType.BISHOP)
+                .isInsufficientMaterial());
+    }
+
+    @Test
+    void knightPairOrAnyPawnIsSufficient() {
+        assertFalse(gameWith("b1", ChessPiece.PieceType.KNIGHT, "g1", ChessPiece.PieceType.KNIGHT)
+                .isInsufficientMaterial());
+        assertFalse(gameWith("a2", ChessPiece.PieceType.PAWN).isInsufficientMaterial());
+        assertFalse(gameWith("a1", ChessPiece.PieceType.ROOK).isInsufficientMaterial());
+    }
+
+    @Test
+    void signatureFollowsCapturesAndUndo() {
+        // The bishop on e3 can take the last pawn on b6.
+        ChessGame game = gameWith("e3", ChessPiece.PieceType.BISHOP, "b6", ChessPiece.PieceType.PAWN);
+        assertFalse(game.isInsufficientMaterial());
+
+        game.doMove(Uci.parse("e3b6"));
+        assertTrue(game.isInsufficientMaterial());
+        assertEquals(0, game.getBoard().getPieceCount(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+
+        game.undoMove();
+        assertFalse(game.isInsufficientMaterial());
+        assertEquals(1, game.getBoard().getPieceCount(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+    }
+
+    /**
+     * @return a game with kings on e1 and e8 and the given pieces, white on rows 1-4
+     * and black on rows 5-8
+     */
+    private static ChessGame gameWith(Object... squaresAndTypes) {
+        var board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 5), ChessPiece.of(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(8, 5), ChessPiece.of(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        for (int i = 0; i < squaresAndTypes.length; i += 2) {
+            String square = (String) squaresAndTypes[i];
+            int row = square.charAt(1) - '0';
+            ChessGame.TeamColor color = (row <= 4) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+            board.addPiece(new ChessPosition(row, square.charAt(0) - 'a' + 1),
+                    ChessPiece.of(color, (ChessPiece.PieceType) squaresAndTypes[i + 1]));
+        }
+        var game = new ChessGame();
+        game.setBoard(board);
+        return game;
+    }
+
+    private static void shuffleKnights(ChessGame game) {
+        game.doMove(Uci.parse("g1f3"));
+        game.doMove(Uci.parse("g8f6"));
+        game.doMove(Uci.parse("f3g1"));
+        game.doMove(Uci.parse("f6g8"));
+    }
+}
@@ -0,0 +1,89 @@
+package chess;
+
+import chess.notation.Fen;
+import chess.notation.Uci;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LegalMoveCacheTest {
+
+    @Test
+    void countsHitsAndMisses() {
+        var cache = new LegalMoveCache(4);
+
+        assertNull(cache.get(1L));
+        cache.put(1L, new int[]{7});
+        assertArrayEquals(new int[]{7}, cache.get(1L));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        var cache = new LegalMoveCache(2);
+        cache.put(1L, new int[0]);
+        cache.put(2L, new int[0]);
+        cache.get(1L);
+
+        cache.put(3L, new int[0]);
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get(1L));
+        assertNull(cache.get(2L));
+        assertNotNull(cache.get(3L));
+    }
+
+    @Test
+    void repeatedValidMovesHitCache() {
+        var game = new ChessGame();
+        game.doMove(new ChessMove(new ChessPosition(2, 1), new ChessPosition(3, 1), null));
+        game.doMove(new ChessMove(new ChessPosition(7, 8), new ChessPosition(6, 8), null));
+        var cache = new LegalMoveCache(16);
+        game.setMoveCache(cache);
+
+        var first = game.validMoves(new ChessPosition(1, 2));
+        long hitsBefore = cache.getHits();
+        var second = game.validMoves(new ChessPosition(1, 2));
+        game.validMoves(new ChessPosition(2, 5));
+
+        assertEquals(first, second);
+        assertEquals(hitsBefore + 2, cache.getHits());
+    }
+
+    @Test
+    void offTurnQueryDoesNotShareEnPassantPosition() {
+        // Same placement, castling rights and en passant column; only whose pawn
+        // just moved two squares differs. White to move can take on e6.
+        var whiteToMove = Fen.parse("7k/8/8/3Pp3/4Pp2/8/8/K7 w - e6 0 1");
+        var blackToMove = Fen.parse("7k/8/8/3Pp3/4Pp2/8/8/K7 b - e3 0 1");
+        var cache = new LegalMoveCache(16);
+        whiteToMove.setMoveCache(cache);
+        blackToMove.setMoveCache(cache);
+        var whitePawn = new ChessPosition(5, 4);
+
+        var onTurn = whiteToMove.validMoves(whitePawn);
+        var offTurn = blackToMove.validMoves(whitePawn);
+
+        assertTrue(onTurn.contains(Uci.parse("d5e6")));
+        assertFalse(offTurn.contains(Uci.parse("d5e6")));
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    void gamesWithoutCacheGenerateEveryTime() {
+        var game = new ChessGame();
+        var cache = new LegalMoveCache(16);
+        game.setMoveCache(cache);
+        game.validMoves(new ChessPosition(1, 2));
+
+        game.setMoveCache(null);
+        var moves = game.validMoves(new ChessPosition(1, 2));
+
+        assertEquals(2, moves.size());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0, cache.getHits());
+        assertNull(new ChessGame().getMoveCache());
+    }
+}
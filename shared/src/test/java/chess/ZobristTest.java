@@ -0,0 +1,114 @@
+package chess;
+
+import chess.notation.Uci;
+import chess.serialization.GsonFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZobristTest {
+
+    @Test
+    void positionKeyRestoredAfterUndo() {
+        var game = new ChessGame();
+        long startKey = game.getPositionKey();
+
+        game.doMove(Uci.parse("e2e4"));
+        game.doMove(Uci.parse("d7d5"));
+        game.doMove(Uci.parse("e4d5"));
+        assertNotEquals(startKey, game.getPositionKey());
+
+        game.undoMove();
+        game.undoMove();
+        game.undoMove();
+        assertEquals(startKey, game.getPositionKey());
+    }
+
+    @Test
+    void transpositionsShareKey() {
+        var first = new ChessGame();
+        first.doMove(Uci.parse("b1c3"));
+        first.doMove(Uci.parse("b8c6"));
+        first.doMove(Uci.parse("g1f3"));
+
+        var second = new ChessGame();
+        second.doMove(Uci.parse("g1f3"));
+        second.doMove(Uci.parse("b8c6"));
+        second.doMove(Uci.parse("b1c3"));
+
+        assertEquals(first.getPositionKey(), second.getPositionKey());
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    void sideToMoveChangesKey() {
+        var game = new ChessGame();
+        long whiteKey = game.getPositionKey();
+
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        assertNotEquals(whiteKey, game.getPositionKey());
+    }
+
+    @Test
+    void castlingRightsChangeKey() {
+        var game = new ChessGame();
+        game.doMove(Uci.parse("g1f3"));
+        game.doMove(Uci.parse("g8f6"));
+        long withRights = game.getPositionKey();
+
+        // Shuffle the rook out and back: same placement, but white lost kingside castling.
+        game.doMove(Uci.parse("h1g1"));
+        game.doMove(Uci.parse("f6g8"));
+        game.doMove(Uci.parse("g1h1"));
+        game.doMove(Uci.parse("g8f6"));
+
+        assertEquals(withRights ^ Zobrist.castling(0b1111) ^ Zobrist.castling(0b1110), game.getPositionKey());
+    }
+
+    @Test
+    void capturableEnPassantChangesKey() {
+        var viaDoubleStep = new ChessGame();
+        viaDoubleStep.doMove(Uci.parse("e2e4"));
+        viaDoubleStep.doMove(Uci.parse("e4e5"));
+        viaDoubleStep.doMove(Uci.parse("d7d5"));
+        viaDoubleStep.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        var viaSingleSteps = new ChessGame();
+        viaSingleSteps.doMove(Uci.parse("e2e4"));
+        viaSingleSteps.doMove(Uci.parse("e4e5"));
+        viaSingleSteps.doMove(Uci.parse("d7d6"));
+        viaSingleSteps.doMove(Uci.parse("d6d5"));
+        viaSingleSteps.setTeamTurn(ChessGame.TeamColor.WHITE);
+
+        assertEquals(viaDoubleStep.getBoard(), viaSingleSteps.getBoard());
+        assertNotEquals(viaDoubleStep.getPositionKey(), viaSingleSteps.getPositionKey());
+    }
+
+    @Test
+    void uncapturableDoubleStepKeepsKey() {
+        var viaDoubleStep = new ChessGame();
+        viaDoubleStep.doMove(Uci.parse("e2e4"));
+
+        var viaSingleSteps = new ChessGame();
+        viaSingleSteps.doMove(Uci.parse("e2e3"));
+        viaSingleSteps.doMove(Uci.parse("e3e4"));
+        viaSingleSteps.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        assertEquals(viaDoubleStep.getPositionKey(), viaSingleSteps.getPositionKey());
+    }
+
+    @Test
+    void incrementalKeyMatchesDeserializedBoard() {
+        var game = new ChessGame();
+        game.doMove(Uci.parse("d2d4"));
+        game.doMove(Uci.parse("e7e5"));
+        game.doMove(Uci.parse("d4e5"));
+
+        var gson = GsonFactory.create();
+        var copy = gson.fromJson(gson.toJson(game), ChessGame.class);
+
+        assertEquals(game.getBoard().getPlacementKey(), copy.getBoard().getPlacementKey());
+        assertEquals(game.getPositionKey(), copy.getPositionKey());
+    }
+}
@@ -0,0 +1,92 @@
+package chess.notation;
+
+import chess.Bitboard;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.perft.PerftPosition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FenTest {
+
+    @Test
+    void startMatchesNewGame() {
+        var game = new ChessGame();
+
+        assertEquals(Fen.START, Fen.format(game));
+        assertEquals(game.getPositionKey(), Fen.parse(Fen.START).getPositionKey());
+        assertEquals(game.getBoard(), Fen.parse(Fen.START).getBoard());
+    }
+
+    @Test
+    void referencePositionsRoundTrip() {
+        for (PerftPosition position : PerftPosition.values()) {
+            assertEquals(position.getFen(), Fen.format(position.newGame()), position.name());
+        }
+    }
+
+    @Test
+    void readsStateAndCounters() {
+        ChessGame game = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R b Kq - 12 40");
+
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertEquals(ChessBoard.WHITE_KINGSIDE | ChessBoard.BLACK_QUEENSIDE, game.getBoard().getCastlingRights());
+        assertEquals(12, game.getHalfmoveClock());
+        assertEquals(40, game.getFullmoveNumber());
+    }
+
+    @Test
+    void movesUpdateCounters() {
+        var game = new ChessGame();
+        game.doMove(Uci.parse("g1f3"));
+        game.doMove(Uci.parse("g8f6"));
+        game.doMove(Uci.parse("e2e4"));
+
+        assertEquals("rnbqkb1r/pppppppp/5n2/8/4P3/5N2/PPPP1PPP/RNBQKB1R b KQkq - 0 2", Fen.format(game));
+    }
+
+    @Test
+    void enPassantKeptOnlyWhenCapturable() {
+        var game = new ChessGame();
+        game.doMove(Uci.parse("e2e4"));
+        game.doMove(Uci.parse("a7a6"));
+        game.doMove(Uci.parse("e4e5"));
+        game.doMove(Uci.parse("d7d5"));
+        String capturable = Fen.format(game);
+        assertEquals("rnbqkbnr/1pp1pppp/p7/3pP3/8/8/PPPP1PPP/RNBQKBNR w KQkq d6 0 3", capturable);
+        assertEquals(game.getPositionKey(), Fen.parse(capturable).getPositionKey());
+
+        ChessGame dropped = Fen.parse("rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1");
+        assertEquals(Bitboard.NO_SQUARE, dropped.getBoard().getEnPassantSquare());
+    }
+
+    @Test
+    void countersAreOptional() {
+        ChessGame game = Fen.parse("8/8/8/8/8/8/8/K6k w - -");
+
+        assertEquals(0, game.getHalfmoveClock());
+        assertEquals(1, game.getFullmoveNumber());
+    }
+
+    @Test
+    void acceptsHalfmoveClockUpToSeventyFiveMoves() {
+        assertEquals(150, Fen.parse("8/8/8/8/8/8/8/K6k w - - 150 90").getHalfmoveClock());
+    }
+
+    @Test
+    void rejectsMalformedPositions() {
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/K6k x - - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/K7k w - - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/K6k w - - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/K6k w KX - 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/K6k w - e3 0 1"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/K6k w - - 0 1 extra"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/K6k w - - 151 90"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/K6k w - - 0 1000001"));
+        // Arabic-Indic and full-width digits are not FEN counters.
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/K6k w - - \u0663 1"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8/8/8/8/8/8/K6k w - - 0 \uFF11"));
+    }
+}
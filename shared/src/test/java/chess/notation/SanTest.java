@@ -0,0 +1,73 @@
+package chess.notation;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SanTest {
+
+    @Test
+    void formatsPieceAndPawnMoves() {
+        var game = new ChessGame();
+
+        assertEquals("e4", San.format(game, Uci.parse("e2e4")));
+        assertEquals("Nf3", San.format(game, Uci.parse("g1f3")));
+        assertEquals(Fen.START, Fen.format(game));
+    }
+
+    @Test
+    void formatsCapturesChecksAndMate() {
+        ChessGame game = Fen.parse("rnbqkbnr/ppppp2p/8/5pp1/4P3/8/PPPP1PPP/RNBQKBNR w KQkq - 0 3");
+
+        assertEquals("exf5", San.format(game, Uci.parse("e4f5")));
+        assertEquals("Qh5#", San.format(game, Uci.parse("d1h5")));
+    }
+
+    @Test
+    void disambiguatesByFileThenRank() {
+        ChessGame byFile = Fen.parse("4k3/8/8/8/8/8/8/R4RK1 w - - 0 1");
+        assertEquals("Rad1", San.format(byFile, Uci.parse("a1d1")));
+
+        ChessGame byRank = Fen.parse("4k3/8/8/R7/8/8/8/R3K3 w - - 0 1");
+        assertEquals("R1a3", San.format(byRank, Uci.parse("a1a3")));
+
+        ChessGame both = Fen.parse("4k3/8/8/8/8/Q1Q5/8/Q3K3 w - - 0 1");
+        assertEquals("Qa3b2", San.format(both, Uci.parse("a3b2")));
+    }
+
+    @Test
+    void formatsCastlingAndPromotion() {
+        ChessGame castling = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        assertEquals("O-O", San.format(castling, Uci.parse("e1g1")));
+        assertEquals("O-O-O", San.format(castling, Uci.parse("e1c1")));
+
+        ChessGame promotion = Fen.parse("8/P3k3/8/8/8/8/8/4K3 w - - 0 1");
+        assertEquals("a8=Q", San.format(promotion,
+                new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 1), ChessPiece.PieceType.QUEEN)));
+    }
+
+    @Test
+    void parsesWhatItFormats() {
+        ChessGame game = Fen.parse("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+        var moves = game.validTeamMoves(ChessGame.TeamColor.WHITE);
+
+        for (ChessMove move : moves) {
+            assertEquals(move, San.parse(game, San.format(game, move)));
+        }
+    }
+
+    @Test
+    void parsesLooseInput() {
+        ChessGame game = Fen.parse("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+
+        assertEquals(Uci.parse("e1g1"), San.parse(game, "0-0"));
+        assertEquals(Uci.parse("a1a8"), San.parse(game, "Rxa8+"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Ke3"));
+        assertThrows(IllegalArgumentException.class, () -> San.parse(game, "Nf3"));
+        assertThrows(IllegalArgumentException.class, () -> San.format(game, Uci.parse("e1e3")));
+    }
+}
@@ -0,0 +1,44 @@
+package chess.notation;
+
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.serialization.GsonFactory;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UciTest {
+
+    @Test
+    void formatsAndParsesMoves() {
+        ChessMove push = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        ChessMove promotion = new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT);
+
+        assertEquals("e2e4", Uci.format(push));
+        assertEquals("a7b8n", Uci.format(promotion));
+        assertEquals(push, Uci.parse("e2e4"));
+        assertEquals(promotion, Uci.parse("a7b8n"));
+    }
+
+    @Test
+    void rejectsMalformedMoves() {
+        assertThrows(IllegalArgumentException.class, () -> Uci.parse("e2e"));
+        assertThrows(IllegalArgumentException.class, () -> Uci.parse("e2e9"));
+        assertThrows(IllegalArgumentException.class, () -> Uci.parse("i2e4"));
+        assertThrows(IllegalArgumentException.class, () -> Uci.parse("e7e8k"));
+        assertThrows(IllegalArgumentException.class,
+                () -> Uci.format(new ChessMove(new ChessPosition(0, 1), new ChessPosition(1, 1), null)));
+    }
+
+    @Test
+    void gsonWritesUciAndReadsBothForms() {
+        var gson = GsonFactory.create();
+        ChessMove move = new ChessMove(new ChessPosition(7, 5), new ChessPosition(8, 5), ChessPiece.PieceType.QUEEN);
+
+        assertEquals("\"e7e8q\"", gson.toJson(move));
+        assertEquals(move, gson.fromJson("\"e7e8q\"", ChessMove.class));
+        assertEquals(move, gson.fromJson("{\"startPosition\":{\"row\":7,\"col\":5},"
+                + "\"endPosition\":{\"row\":8,\"col\":5},\"promotionPiece\":\"QUEEN\"}", ChessMove.class));
+    }
+}
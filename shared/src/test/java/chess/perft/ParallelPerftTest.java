@@ -0,0 +1,48 @@
+package chess.perft;
+
+import chess.ChessGame;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelPerftTest {
+
+    @Test
+    void matchesSequentialCount() {
+        var game = PerftPosition.START.newGame();
+
+        assertEquals(197281, new ParallelPerft().perft(game, 4));
+    }
+
+    @Test
+    void deeperSplitMatchesSequentialCount() {
+        var pool = new ForkJoinPool(4);
+        try {
+            var game = PerftPosition.POSITION_5.newGame();
+
+            assertEquals(62379, new ParallelPerft(pool, 2).perft(game, 3));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void divideMatchesSequentialDivide() {
+        var game = PerftPosition.POSITION_4.newGame();
+
+        assertEquals(new Perft(PerftPosition.POSITION_4.newGame()).divide(2), new ParallelPerft().divide(game, 2));
+    }
+
+    @Test
+    void originalGameUnchanged() {
+        var game = PerftPosition.KIWIPETE.newGame();
+        var copy = new ChessGame(game);
+
+        new ParallelPerft().perft(game, 2);
+
+        assertEquals(copy, game);
+        assertEquals(copy.getPositionKey(), game.getPositionKey());
+    }
+}
@@ -0,0 +1,46 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerftTest {
+
+    @ParameterizedTest
+    @EnumSource(PerftPosition.class)
+    void referenceCounts(PerftPosition position) {
+        var perft = new Perft(position.newGame());
+        long[] expected = position.getExpectedCounts();
+
+        for (int depth = 1; depth <= expected.length; depth++) {
+            assertEquals(expected[depth - 1], perft.perft(depth), "%s at depth %d".formatted(position, depth));
+        }
+    }
+
+    @Test
+    void divideSumsToPerft() {
+        var perft = new Perft(PerftPosition.KIWIPETE.newGame());
+
+        Map<ChessMove, Long> divide = perft.divide(2);
+
+        assertEquals(48, divide.size());
+        assertEquals(perft.perft(2), divide.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void searchLeavesGameUnchanged() {
+        var game = PerftPosition.KIWIPETE.newGame();
+        var before = game.getPositionKey();
+
+        new Perft(game).perft(3);
+
+        assertEquals(before, game.getPositionKey());
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+    }
+}
@@ -0,0 +1,60 @@
+package chess.validation;
+
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.notation.Uci;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameArchiveValidatorTest {
+
+    private static final List<ChessMove> SCHOLARS_MATE = List.of(
+            Uci.parse("e2e4"), Uci.parse("e7e5"),
+            Uci.parse("f1c4"), Uci.parse("b8c6"),
+            Uci.parse("d1h5"), Uci.parse("g8f6"),
+            Uci.parse("h5f7"));
+
+    @Test
+    void validGame() {
+        assertEquals(GameArchiveValidator.VALID, GameArchiveValidator.validateGame(SCHOLARS_MATE));
+    }
+
+    @Test
+    void reportsFirstIllegalMove() {
+        var moves = new ArrayList<>(SCHOLARS_MATE);
+        // The g8 knight cannot jump to g6.
+        moves.set(5, Uci.parse("g8g6"));
+
+        assertEquals(5, GameArchiveValidator.validateGame(moves));
+    }
+
+    @Test
+    void reportsMoveOffTheBoard() {
+        var moves = new ArrayList<>(SCHOLARS_MATE);
+        moves.set(3, new ChessMove(new ChessPosition(8, 2), new ChessPosition(9, 3), null));
+
+        assertEquals(3, GameArchiveValidator.validateGame(moves));
+        assertArrayEquals(new int[] {3, GameArchiveValidator.VALID},
+                new GameArchiveValidator().validate(List.of(moves, SCHOLARS_MATE)));
+    }
+
+    @Test
+    void validatesWholeArchive() {
+        var illegal = new ArrayList<>(SCHOLARS_MATE);
+        illegal.set(2, Uci.parse("f1f3"));
+        List<List<ChessMove>> archive = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            archive.add(i % 7 == 3 ? illegal : SCHOLARS_MATE);
+        }
+
+        int[] results = new GameArchiveValidator().validate(archive);
+
+        for (int i = 0; i < archive.size(); i++) {
+            assertEquals(i % 7 == 3 ? 2 : GameArchiveValidator.VALID, results[i], "game " + i);
+        }
+    }
+}